@@ -0,0 +1,220 @@
+package com.example.emp.business.concurrent;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Collects items from many callers and hands them to the writer in groups, so one transaction and
+ * one commit serve a whole group. A group is written once it has {@code maxBatchSize} items or the
+ * first item waited {@code maxDelayMs}. Every caller blocks until its group is committed and gets its
+ * own result; when a group fails its items are written again one by one, so only the items that fail
+ * on their own get an exception.
+ *
+ * @param <T> item to write
+ * @param <R> result of writing an item, the writer returns them in the order of the items
+ */
+@Log4j2
+public class GroupCommitQueue<T, R> {
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final String name;
+
+    private final BlockingQueue<Pending<T, R>> queue;
+
+    private final int maxBatchSize;
+
+    private final long maxDelayNanos;
+
+    private final Function<List<T>, List<R>> writer;
+
+    private final AtomicLong commits = new AtomicLong();
+
+    private final AtomicLong committedItems = new AtomicLong();
+
+    private final AtomicLong failedItems = new AtomicLong();
+
+    private final AtomicLong commitNanos = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    public GroupCommitQueue(String name, int capacity, int maxBatchSize, long maxDelayMs, Function<List<T>, List<R>> writer) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.writer = writer;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, name + "-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Writes everything that is queued and stops the flusher; later submits are rejected.
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending<T, R>> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        leftovers.forEach(pending -> pending.result.completeExceptionally(new RejectedExecutionException(name + " is shut down")));
+    }
+
+    /**
+     * Queues the item and waits until the group it belongs to is committed.
+     *
+     * @throws RejectedExecutionException if the queue is full or shut down
+     */
+    public R submit(T item) {
+        Pending<T, R> pending = new Pending<>(item);
+        if (!running || !queue.offer(pending)) {
+            throw new RejectedExecutionException(name + " is full");
+        }
+        if (!running && queue.remove(pending)) {
+            // lost the race with shutdown, nobody will write it
+            throw new RejectedExecutionException(name + " is shut down");
+        }
+        try {
+            return pending.result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            // the item is written anyway, the caller just does not learn the result
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a group commit", e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getCommits() {
+        return commits.get();
+    }
+
+    public long getCommittedItems() {
+        return committedItems.get();
+    }
+
+    public long getFailedItems() {
+        return failedItems.get();
+    }
+
+    public long getCommitNanos() {
+        return commitNanos.get();
+    }
+
+    private void run() {
+        List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<T, R> first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                log.warn("{} flusher interrupted, writing {} collected items", name, batch.size());
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending<T, R>> batch) {
+        try {
+            List<R> results = write(batch.stream().map(Pending::item).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+            return;
+        } catch (RuntimeException | Error e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            log.warn("Group commit of {} items failed, writing them one by one: {}", batch.size(), e.getMessage());
+        }
+        for (Pending<T, R> pending : batch) {
+            try {
+                pending.result.complete(write(List.of(pending.item())).get(0));
+            } catch (RuntimeException | Error e) {
+                fail(pending, e);
+            }
+        }
+    }
+
+    private List<R> write(List<T> items) {
+        long startedAt = System.nanoTime();
+        try {
+            List<R> results = writer.apply(items);
+            committedItems.addAndGet(items.size());
+            return results;
+        } finally {
+            commits.incrementAndGet();
+            commitNanos.addAndGet(System.nanoTime() - startedAt);
+        }
+    }
+
+    private void fail(Pending<T, R> pending, Throwable failure) {
+        failedItems.incrementAndGet();
+        pending.result.completeExceptionally(failure);
+    }
+
+    private record Pending<T, R>(T item, CompletableFuture<R> result) {
+
+        Pending(T item) {
+            this(item, new CompletableFuture<>());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.emp.business.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key: the first caller runs the loader and every
+ * caller that arrives while it is in flight gets the same result or exception. Nothing is
+ * cached - once the call completes the next caller runs the loader again. A caller that waits
+ * longer than its maximum wait is rejected rather than running the loader itself, so a slow
+ * call does not turn into one call per waiter.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @throws RejectedExecutionException if the in-flight call does not finish within {@code maxWaitMs}
+     */
+    public V execute(K key, long maxWaitMs, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            try {
+                V value = loader.get();
+                call.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+
+        try {
+            return existing.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RejectedExecutionException("In-flight call for " + key + " did not finish in " + maxWaitMs + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight call", e);
+        }
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.emp.business.events;
+
+import com.example.emp.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EmployeeEvent {
+
+    private long id;
+
+    private EmployeeEventType type;
+
+    private Employee employee;
+
+    public boolean matches(String department) {
+        return department == null || department.equals(employee.getDepartment());
+    }
+}
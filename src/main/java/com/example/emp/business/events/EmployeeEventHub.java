@@ -0,0 +1,313 @@
+package com.example.emp.business.events;
+
+import com.example.emp.model.Employee;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Fans out employee create and delete events to Server-Sent Events subscribers.
+ * Subscriptions are async servlet requests, so idle subscribers do not hold a thread. A single
+ * dispatcher thread puts the events in order into a bounded queue per subscriber, and a small pool
+ * of sender threads drains each queue, one sender per subscriber at a time. A send blocks while the
+ * client does not read; a subscriber whose queue is full, or whose send takes longer than
+ * {@code emp.events.send-timeout-ms}, is dropped and resumes with {@code Last-Event-ID} when it
+ * reconnects. The pool gets a thread in place of every stalled send, so stalled clients do not hold
+ * back the other subscribers.
+ */
+@Log4j2
+@Component
+public class EmployeeEventHub {
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    private final Deque<EmployeeEvent> history = new ArrayDeque<>();
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-event-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ThreadPoolExecutor senders;
+
+    private long lastEventId;
+
+    @Value("${emp.events.history-size:1000}")
+    private int historySize = 1000;
+
+    @Value("${emp.events.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs = 15000;
+
+    @Value("${emp.events.subscriber-timeout-ms:1800000}")
+    private long subscriberTimeoutMs = 1800000;
+
+    @Value("${emp.events.subscriber-queue-size:256}")
+    private int subscriberQueueSize = 256;
+
+    @Value("${emp.events.sender-threads:4}")
+    private int senderThreads = 4;
+
+    @Value("${emp.events.send-timeout-ms:5000}")
+    private long sendTimeoutMs = 5000;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "employee-event-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleAtFixedRate(this::sendHeartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        long stallCheckIntervalMs = Math.max(sendTimeoutMs / 2, 1);
+        dispatcher.scheduleWithFixedDelay(this::dropStalledSubscribers, stallCheckIntervalMs, stallCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.keySet().forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe(String department, Long lastSeenEventId) {
+        return subscribe(new SseEmitter(subscriberTimeoutMs), department, lastSeenEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String department, Long lastSeenEventId) {
+        Subscriber subscriber = new Subscriber(emitter, department == null ? "" : department);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+
+        synchronized (history) {
+            boolean missedEvicted = lastSeenEventId != null && (lastSeenEventId > lastEventId
+                    || !history.isEmpty() && history.peekFirst().getId() > lastSeenEventId + 1);
+            List<EmployeeEvent> missed = lastSeenEventId == null ? List.of() : eventsAfter(lastSeenEventId, department);
+            // more missed events than the queue holds are a reload as well
+            boolean missedTooMany = missed.size() >= subscriberQueueSize;
+            subscribers.put(emitter, subscriber);
+            dispatcher.execute(() -> {
+                if (missedEvicted || missedTooMany) {
+                    send(subscriber, SseEmitter.event().name("reset").data("Missed events are no longer available, reload the list"));
+                }
+                if (!missedTooMany) {
+                    missed.forEach(event -> send(subscriber, event(event)));
+                }
+            });
+        }
+        log.debug("New event subscriber for department: {}. Subscribers: {}", department, subscribers.size());
+        return emitter;
+    }
+
+    public void publish(EmployeeEventType type, Employee employee) {
+        synchronized (history) {
+            EmployeeEvent event = new EmployeeEvent(++lastEventId, type, employee);
+            history.addLast(event);
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+            dispatcher.execute(() -> dispatch(event));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    List<EmployeeEvent> eventsAfter(long lastSeenEventId, String department) {
+        synchronized (history) {
+            return history.stream()
+                    .filter(event -> event.getId() > lastSeenEventId)
+                    .filter(event -> event.matches(department))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void dispatch(EmployeeEvent event) {
+        subscribers.values().forEach(subscriber -> {
+            if (event.matches(subscriber.department.isEmpty() ? null : subscriber.department)) {
+                send(subscriber, event(event));
+            }
+        });
+    }
+
+    private void sendHeartbeat() {
+        subscribers.values().forEach(subscriber -> send(subscriber, SseEmitter.event().comment("heartbeat")));
+    }
+
+    // the blocked write cannot be interrupted, it ends with the write timeout of the container
+    private void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(subscriber -> {
+            if (subscriber.markStalled(now)) {
+                log.info("Dropping event subscriber for department: {}, a send did not finish in {} ms",
+                        subscriber.department, sendTimeoutMs);
+                subscribers.remove(subscriber.emitter);
+                resizeSenders(1);
+            }
+        });
+    }
+
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            int size = senders.getCorePoolSize() + delta;
+            // the maximum may not be below the core size at any time
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.offer(event)) {
+            log.info("Dropping event subscriber for department: {}, {} events are waiting for it",
+                    subscriber.department, subscriberQueueSize);
+            subscribers.remove(subscriber.emitter);
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder event(EmployeeEvent event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.getId()))
+                .name(event.getType().name().toLowerCase())
+                .data(event.getEmployee(), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * The events waiting for one subscriber. The emitter is only used by the sender that drains the
+     * queue, so a dropped subscriber is completed once the send in progress returns. A stalled send
+     * gives its place in the sender pool back when it returns.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final String department;
+
+        // guarded by this
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+
+        private boolean draining;
+
+        private boolean dropped;
+
+        private boolean stalled;
+
+        // System.nanoTime() when the send in progress started, 0 between sends
+        private long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter, String department) {
+            this.emitter = emitter;
+            this.department = department;
+        }
+
+        /**
+         * Queues the event, {@code false} if the queue is full and the subscriber is dropped.
+         */
+        boolean offer(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (dropped) {
+                    return true;
+                }
+                if (pending.size() >= subscriberQueueSize) {
+                    dropped = true;
+                    pending.clear();
+                    return false;
+                }
+                pending.add(event);
+                if (draining) {
+                    return true;
+                }
+                draining = true;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.debug("Event senders are shut down");
+            }
+            return true;
+        }
+
+        /**
+         * Drops the subscriber if its send in progress started more than the send timeout before
+         * {@code now}, {@code true} only the first time.
+         */
+        synchronized boolean markStalled(long now) {
+            if (stalled || sendStartedAt == 0 || now - sendStartedAt < TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                return false;
+            }
+            stalled = true;
+            dropped = true;
+            pending.clear();
+            return true;
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = dropped ? null : pending.poll();
+                    if (event == null) {
+                        draining = false;
+                        break;
+                    }
+                    sendStartedAt = System.nanoTime();
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping event subscriber: {}", e.getMessage());
+                    subscribers.remove(emitter);
+                    sendFinished();
+                    return;
+                }
+                sendFinished();
+            }
+            if (isDropped()) {
+                emitter.complete();
+            }
+        }
+
+        private void sendFinished() {
+            boolean replaced;
+            synchronized (this) {
+                sendStartedAt = 0;
+                replaced = stalled;
+            }
+            if (replaced) {
+                resizeSenders(-1);
+            }
+        }
+
+        private synchronized boolean isDropped() {
+            return dropped;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.emp.business.events;
+
+public enum EmployeeEventType {
+    CREATED,
+    DELETED
+}
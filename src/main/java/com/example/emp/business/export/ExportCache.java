@@ -0,0 +1,212 @@
+package com.example.emp.business.export;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache for rendered exports. A file is addressed by a hash of the export request and of the
+ * data version it was rendered from. Every write bumps the version of its department and of the
+ * unfiltered exports, so a stale file can never be hit; the entries it made stale are dropped right
+ * away. The least recently used entries are evicted once the files exceed the configured size.
+ * Dropped files are deleted after a delay, so a response that is still being sent from one completes.
+ */
+@Log4j2
+@Component
+public class ExportCache {
+
+    private static final String ENTRY_SUFFIX = ".export";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final AtomicLong allDepartmentsVersion = new AtomicLong();
+
+    private final Map<String, AtomicLong> departmentVersions = new ConcurrentHashMap<>();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong generations = new AtomicLong();
+
+    private final String instance = Long.toHexString(System.currentTimeMillis());
+
+    private long totalBytes;
+
+    private Path directory;
+
+    private ScheduledExecutorService cleaner;
+
+    @Value("${emp.export.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${emp.export.cache.directory:${java.io.tmpdir}/emp-export-cache}")
+    private String directoryName = System.getProperty("java.io.tmpdir") + "/emp-export-cache";
+
+    @Value("${emp.export.cache.max-size:512MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(512);
+
+    @Value("${emp.export.cache.delete-delay-ms:30000}")
+    private long deleteDelayMs = 30000;
+
+    /**
+     * {@code etag} names the file rather than the request: the same request rendered again after an
+     * eviction or restart gets a new one, because the bytes (row order, workbook timestamps) may differ.
+     */
+    public record Entry(String id, String etag, Set<String> departments, Path file, long size, String contentType,
+                        String contentDisposition) {
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "export-cache-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!enabled) {
+            return;
+        }
+        directory = Files.createDirectories(Paths.get(directoryName));
+        // versions start over on every start, so files left by a previous run could be hit with stale data
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.toString().endsWith(ENTRY_SUFFIX) || file.toString().endsWith(TEMP_SUFFIX))
+                    .forEach(this::delete);
+        }
+        log.info("Export cache in {} limited to {}", directory, maxSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The data version of an export of {@code departments}, all departments when empty. Versions only
+     * grow, so the sum of the department versions changes with every write to one of them.
+     */
+    public long version(Set<String> departments) {
+        if (departments.isEmpty()) {
+            return allDepartmentsVersion.get();
+        }
+        long version = 0;
+        for (String department : departments) {
+            AtomicLong departmentVersion = departmentVersions.get(department);
+            version += departmentVersion == null ? 0 : departmentVersion.get();
+        }
+        return version;
+    }
+
+    public synchronized Optional<Entry> lookup(String request, Set<String> departments) {
+        return Optional.ofNullable(entries.get(id(request, version(departments))));
+    }
+
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(directory, "export-", TEMP_SUFFIX);
+    }
+
+    /**
+     * Publishes a rendered export. Nothing is cached when the data changed since {@code version}
+     * was read or the file does not fit the cache; the caller then keeps ownership of the file.
+     */
+    public synchronized Optional<Entry> store(String request, Set<String> departments, long version, Path renderedFile,
+                                              String contentType, String contentDisposition) throws IOException {
+        long size = Files.size(renderedFile);
+        String id = id(request, version);
+        if (version != version(departments) || entries.containsKey(id) || size > maxSize.toBytes()) {
+            return Optional.empty();
+        }
+
+        Path file = Files.move(renderedFile, directory.resolve(id + ENTRY_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        String etag = "\"" + id.substring(0, 16) + "-" + instance + "-" + generations.incrementAndGet() + "\"";
+        Entry entry = new Entry(id, etag, Set.copyOf(departments), file, size, contentType, contentDisposition);
+        entries.put(id, entry);
+        totalBytes += size;
+
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (totalBytes > maxSize.toBytes() && leastRecentlyUsed.hasNext()) {
+            Entry evicted = leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            drop(evicted);
+            log.debug("Evicted export {} ({} bytes)", evicted.id(), evicted.size());
+        }
+        return Optional.of(entry);
+    }
+
+    /**
+     * Called on every write to a department: makes all exports that could contain it stale. A
+     * {@code null} department is in no department filter, so only the unfiltered exports go stale.
+     */
+    public synchronized void invalidate(String department) {
+        allDepartmentsVersion.incrementAndGet();
+        if (department != null) {
+            departmentVersions.computeIfAbsent(department, name -> new AtomicLong()).incrementAndGet();
+        }
+        entries.values().removeIf(entry -> {
+            boolean stale = entry.departments().isEmpty() || department != null && entry.departments().contains(department);
+            if (stale) {
+                drop(entry);
+            }
+            return stale;
+        });
+    }
+
+    public void discard(Path file) {
+        delete(file);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void drop(Entry entry) {
+        totalBytes -= entry.size();
+        cleaner.schedule(() -> delete(entry.file()), deleteDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached export {}", file, e);
+        }
+    }
+
+    private static String id(String request, long version) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Objects.requireNonNull(request).getBytes(StandardCharsets.UTF_8));
+            digest.update(("#" + version).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
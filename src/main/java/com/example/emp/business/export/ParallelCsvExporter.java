@@ -0,0 +1,200 @@
+package com.example.emp.business.export;
+
+import com.example.emp.business.handlers.ExportException;
+import com.example.emp.business.mappers.EmployeeMapStructMapper;
+import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.SqlStatementCounter;
+import com.example.emp.business.repository.model.IdRange;
+import com.example.emp.business.repository.shard.EmployeeShards;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import com.opencsv.CSVWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports CSV by splitting the id space of the matching employees into fixed-size ranges. Every
+ * range is read through its own cursor and connection and encoded by a worker of a bounded pool;
+ * the encoded chunks are written in range order, so the output is the same as a sequential export
+ * ordered by id. At most {@code parallelism} chunks are in flight, which bounds the memory held by
+ * chunks that finished ahead of the one being written. With sharding, every shard's own id range is
+ * split, and the chunks of a shard are read there; shards own ascending id blocks, so the output is
+ * still ordered by id.
+ */
+@Log4j2
+@Component
+public class ParallelCsvExporter {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeMapStructMapper employeeMapStructMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Value("${emp.export.parallel-workers:4}")
+    private int workers = 4;
+
+    @Value("${emp.export.parallel-chunk-ids:50000}")
+    private long chunkIds = 50000;
+
+    @Value("${emp.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    private ExecutorService executor;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "csv-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public Optional<IdRange> findIdRange(EmployeeQuery query) {
+        return employeeRepository.findIdRange(query);
+    }
+
+    /**
+     * Writes the CSV and returns the number of employees in it.
+     */
+    public long export(EmployeeQuery query, IdRange idRange, Writer output) throws IOException {
+        return export(query, idRange, output, workers);
+    }
+
+    public long export(EmployeeQuery query, IdRange idRange, Writer output, int parallelism) throws IOException {
+        long startedAt = System.nanoTime();
+        List<Chunk> chunks = chunks(query, idRange);
+        int maxInFlight = Math.max(1, Math.min(parallelism, workers));
+
+        StringWriter header = new StringWriter();
+        try (CSVWriter writer = new CSVWriter(header)) {
+            writer.writeNext(query.getFields().stream().map(EmployeeField::getHeader).toArray(String[]::new));
+        }
+        output.write(header.toString());
+
+        Deque<Future<EncodedChunk>> inFlight = new ArrayDeque<>();
+        int nextChunk = 0;
+        long rows = 0;
+        try {
+            while (nextChunk < chunks.size() || !inFlight.isEmpty()) {
+                while (nextChunk < chunks.size() && inFlight.size() < maxInFlight) {
+                    Chunk chunk = chunks.get(nextChunk++);
+                    inFlight.add(executor.submit(SqlStatementCounter.propagate(() -> encodeChunk(chunk))));
+                }
+                EncodedChunk encoded = awaitChunk(inFlight.poll());
+                output.write(encoded.csv());
+                rows += encoded.rows();
+            }
+        } catch (ExportException | IOException e) {
+            inFlight.forEach(chunk -> chunk.cancel(true));
+            throw e;
+        }
+        output.flush();
+        log.info("Exported {} employees with ids {}..{} in {} chunks with parallelism {} in {} ms", rows, idRange.min(),
+                idRange.max(), chunks.size(), maxInFlight, (System.nanoTime() - startedAt) / 1_000_000);
+        return rows;
+    }
+
+    private List<Chunk> chunks(EmployeeQuery query, IdRange idRange) {
+        if (!employeeShards.isSharded()) {
+            return chunks(EmployeeShards.HOME_SHARD, query, idRange);
+        }
+        // the id blocks of the shards are far apart, so each shard's range is split on its own
+        List<Integer> shards = employeeShards.shardsOf(query);
+        List<Optional<IdRange>> shardRanges = employeeShards.scatter(shards, shard -> employeeRepository.findIdRange(query));
+        List<Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            int shard = shards.get(i);
+            shardRanges.get(i).ifPresent(shardRange -> chunks.addAll(chunks(shard, query, shardRange)));
+        }
+        return chunks;
+    }
+
+    private List<Chunk> chunks(int shard, EmployeeQuery query, IdRange idRange) {
+        List<Chunk> chunks = new ArrayList<>();
+        for (long from = idRange.min(); from <= idRange.max(); from += chunkIds) {
+            chunks.add(new Chunk(shard, query.toBuilder()
+                    .idFrom(from)
+                    .idTo(Math.min(from + chunkIds, idRange.max() + 1))
+                    .sort(Sort.by("id"))
+                    .build()));
+        }
+        return chunks;
+    }
+
+    private EncodedChunk encodeChunk(Chunk chunk) throws IOException {
+        Set<EmployeeField> fields = chunk.query().getFields();
+        StringWriter buffer = new StringWriter();
+        AtomicInteger rows = new AtomicInteger();
+        try (CSVWriter writer = new CSVWriter(buffer)) {
+            employeeShards.runOnShard(chunk.shard(), () -> readOnlyTransaction.executeWithoutResult(status ->
+                    employeeRepository.streamEmployees(chunk.query(), fetchSize, employeeDAO -> {
+                        Employee employee = employeeMapStructMapper.employeeDAOToEmployee(employeeDAO);
+                        writer.writeNext(fields.stream().map(field -> field.format(employee)).toArray(String[]::new));
+                        rows.incrementAndGet();
+                    })));
+        }
+        return new EncodedChunk(buffer.toString(), rows.get());
+    }
+
+    private EncodedChunk awaitChunk(Future<EncodedChunk> chunk) {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExportException("CSV export was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new ExportException("Failed to export an id range", e.getCause());
+        }
+    }
+
+    private record Chunk(int shard, EmployeeQuery query) {
+    }
+
+    private record EncodedChunk(String csv, int rows) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.emp.business.export;
+
+import com.example.emp.business.handlers.ExportException;
+import com.example.emp.business.mappers.EmployeeMapStructMapper;
+import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.SqlStatementCounter;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds an XLSX workbook with one sheet per department. Every department is read with its own
+ * streaming query and rendered into its own sheet by a worker of a bounded pool. The sheets are
+ * SXSSF sheets backed by temporary files, so only a small window of rows per sheet is held in memory.
+ * Sheets are created up front on the calling thread and strings are written inline, so workers never
+ * touch shared workbook state.
+ */
+@Log4j2
+@Component
+public class PartitionedExcelExporter {
+
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeMapStructMapper employeeMapStructMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${emp.export.partition-workers:4}")
+    private int workers = 4;
+
+    @Value("${emp.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Value("${emp.export.rows-in-memory:100}")
+    private int rowsInMemory = 100;
+
+    private ExecutorService executor;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "excel-export-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public List<String> findDepartments(EmployeeQuery query) {
+        return employeeRepository.findDepartments(query);
+    }
+
+    /**
+     * Writes the workbook and returns the number of employees in it.
+     */
+    public int export(EmployeeQuery query, List<String> departments, OutputStream outputStream) throws IOException {
+        long startedAt = System.nanoTime();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, rowsInMemory, true, false);
+        try {
+            List<SXSSFSheet> sheets = new ArrayList<>();
+            Set<String> sheetNames = new HashSet<>();
+            for (String department : departments) {
+                sheets.add(workbook.createSheet(sheetName(department, sheetNames)));
+            }
+
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < departments.size(); i++) {
+                EmployeeQuery departmentQuery = query.toBuilder().departments(Set.of(departments.get(i))).build();
+                SXSSFSheet sheet = sheets.get(i);
+                results.add(executor.submit(SqlStatementCounter.propagate(() -> renderSheet(departmentQuery, sheet))));
+            }
+            int rows = 0;
+            try {
+                for (Future<Integer> result : results) {
+                    rows += awaitSheet(result);
+                }
+            } catch (ExportException e) {
+                results.forEach(result -> result.cancel(true));
+                throw e;
+            }
+
+            workbook.write(outputStream);
+            log.info("Exported {} employees on {} department sheets in {} ms", rows, departments.size(),
+                    (System.nanoTime() - startedAt) / 1_000_000);
+            return rows;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private int renderSheet(EmployeeQuery query, SXSSFSheet sheet) {
+        Set<EmployeeField> fields = query.getFields();
+        Row headerRow = sheet.createRow(0);
+        int column = 0;
+        for (EmployeeField field : fields) {
+            headerRow.createCell(column++).setCellValue(field.getHeader());
+        }
+
+        AtomicInteger rowNum = new AtomicInteger(1);
+        readOnlyTransaction.executeWithoutResult(status -> employeeRepository.streamEmployees(query, fetchSize, employeeDAO -> {
+            Employee employee = employeeMapStructMapper.employeeDAOToEmployee(employeeDAO);
+            Row row = sheet.createRow(rowNum.getAndIncrement());
+            int cellNum = 0;
+            for (EmployeeField field : fields) {
+                Cell cell = row.createCell(cellNum++);
+                if (field == EmployeeField.ID) {
+                    cell.setCellValue(employee.getId());
+                } else {
+                    cell.setCellValue(field.format(employee));
+                }
+            }
+        }));
+        return rowNum.get() - 1;
+    }
+
+    private int awaitSheet(Future<Integer> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExportException("Excel export was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new ExportException("Failed to export a department sheet", e.getCause());
+        }
+    }
+
+    static String sheetName(String department, Set<String> usedNames) {
+        String base = WorkbookUtil.createSafeSheetName(department);
+        String name = base;
+        for (int suffix = 2; !usedNames.add(name.toLowerCase(Locale.ROOT)); suffix++) {
+            String tag = " (" + suffix + ")";
+            name = base.substring(0, Math.min(base.length(), MAX_SHEET_NAME_LENGTH - tag.length())) + tag;
+        }
+        return name;
+    }
+}
@@ -3,11 +3,13 @@ package com.example.emp.business.mappers;
 import com.example.emp.business.repository.model.EmployeeDAO;
 import com.example.emp.model.Employee;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface EmployeeMapStructMapper {
 
     Employee employeeDAOToEmployee(EmployeeDAO employeeDAO);
 
+    @Mapping(target = "departmentRef", ignore = true)
     EmployeeDAO employeeToEmployeeDAO(Employee employee);
 }
@@ -0,0 +1,71 @@
+package com.example.emp.business.profiling;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Counts the bytes the characters written through it take in the given charset, for the size of an
+ * export written to a {@link Writer}. Single byte charsets and UTF-8 are counted without encoding.
+ */
+public class CountingWriter extends FilterWriter {
+
+    private final Charset charset;
+
+    private final boolean singleByte;
+
+    private long count;
+
+    public CountingWriter(Writer out, Charset charset) {
+        super(out);
+        this.charset = charset;
+        this.singleByte = StandardCharsets.ISO_8859_1.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        out.write(c);
+        count += size(String.valueOf((char) c), 0, 1);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        out.write(cbuf, off, len);
+        count += size(CharBuffer.wrap(cbuf), off, off + len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        out.write(str, off, len);
+        count += size(str, off, off + len);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private long size(CharSequence chars, int start, int end) {
+        if (singleByte) {
+            return end - start;
+        }
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            return charset.encode(CharBuffer.wrap(chars, start, end)).remaining();
+        }
+        long bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // a surrogate pair is 4 bytes, 2 per half
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
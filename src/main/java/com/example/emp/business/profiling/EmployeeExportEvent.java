@@ -0,0 +1,32 @@
+package com.example.emp.business.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An export written to the response; the event duration covers rendering and writing.
+ */
+@Name("com.example.emp.EmployeeExport")
+@Label("Employee Export")
+@Category("Employee Service")
+@StackTrace(false)
+public class EmployeeExportEvent extends jdk.jfr.Event {
+
+    @Label("Format")
+    public String format;
+
+    @Label("Mode")
+    @Description("list, parallel or partitioned")
+    public String mode;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,19 @@
+package com.example.emp.business.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Mapping of loaded entities to API objects; the event duration is the mapping time.
+ */
+@Name("com.example.emp.EmployeeMapping")
+@Label("Employee Mapping")
+@Category("Employee Service")
+@StackTrace(false)
+public class EmployeeMappingEvent extends jdk.jfr.Event {
+
+    @Label("Rows")
+    public long rows;
+}
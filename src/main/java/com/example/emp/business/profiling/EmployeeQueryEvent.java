@@ -0,0 +1,28 @@
+package com.example.emp.business.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A database read of the employee service; the event duration is the time spent in the repository.
+ */
+@Name("com.example.emp.EmployeeQuery")
+@Label("Employee Query")
+@Category({"Employee Service", "Database"})
+@Description("Read of employees by the employee service")
+@StackTrace(false)
+public class EmployeeQueryEvent extends jdk.jfr.Event {
+
+    @Label("Kind")
+    @Description("byId, byIdWithArchive, list, count or exists")
+    public String kind;
+
+    @Label("Query")
+    public String query;
+
+    @Label("Rows")
+    public long rows;
+}
@@ -0,0 +1,162 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.repository.shard.EmployeeShards;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the department table. Lookups by name and by key are map reads; the table is
+ * only read again on a miss, e.g. for a department added by another instance. Misses of filters are
+ * answered from the last read for {@code emp.departments.min-reload-interval-ms}, so requests for
+ * unknown departments do not read the table each time. Names are the
+ * instances read from the table, one per department for the whole application. With sharding, the
+ * table of the home shard is the dictionary and every other shard holds a copy with the same keys.
+ */
+@Log4j2
+@Component
+public class DepartmentDictionary {
+
+    private static final String SELECT_SQL = "SELECT id, name FROM department";
+    private static final String INSERT_SQL = "INSERT INTO department (name) VALUES (?)";
+    private static final String SELECT_ID_SQL = "SELECT id FROM department WHERE name = ?";
+    private static final String COPY_SQL = "INSERT INTO department (id, name) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+    @Value("${emp.departments.min-reload-interval-ms:1000}")
+    private long minReloadIntervalMs = 1000;
+
+    private volatile long lastReloadNanos;
+
+    private volatile boolean loaded;
+
+    /**
+     * Key of an existing department. Never adds one, so filtering by an unknown name does not grow the table.
+     */
+    public Optional<Integer> find(String name) {
+        Integer id = ids.get(name);
+        if (id == null && isReloadDue()) {
+            reloadIfDue();
+            id = ids.get(name);
+        }
+        return Optional.ofNullable(id);
+    }
+
+    /**
+     * Keys of the known departments among the names, unknown names are left out.
+     */
+    public Set<Integer> findAll(Collection<String> names) {
+        return names.stream()
+                .map(this::find)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Key of the department, added to the table in its own transaction if it is new. Called by the
+     * write paths before the employee is persisted, never during a flush. The entry stays even if the
+     * write that needed it rolls back.
+     */
+    public Integer register(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            reload();
+            if (!ids.containsKey(name)) {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                try {
+                    employeeShards.runOnShard(EmployeeShards.HOME_SHARD,
+                            () -> transaction.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, name)));
+                    log.info("Department {} is added to the dictionary", name);
+                } catch (DuplicateKeyException e) {
+                    log.debug("Department {} was added by another instance", name);
+                }
+                if (employeeShards.isSharded()) {
+                    copyToShards(transaction, name);
+                }
+                reload();
+            }
+            return ids.get(name);
+        }
+    }
+
+    // before the employee that needs it is written, so the key is valid on the employee's shard
+    private void copyToShards(TransactionTemplate transaction, String name) {
+        Integer id = employeeShards.onShard(EmployeeShards.HOME_SHARD,
+                () -> transaction.execute(status -> jdbcTemplate.queryForObject(SELECT_ID_SQL, Integer.class, name)));
+        for (int shard = 0; shard < employeeShards.getShardCount(); shard++) {
+            if (shard == EmployeeShards.HOME_SHARD) {
+                continue;
+            }
+            try {
+                employeeShards.runOnShard(shard, () -> transaction.executeWithoutResult(status -> jdbcTemplate.update(COPY_SQL, id, name)));
+            } catch (DuplicateKeyException e) {
+                log.debug("Department {} was copied to shard {} by another instance", name, shard);
+            }
+        }
+    }
+
+    public String name(Integer id) {
+        String name = names.get(id);
+        if (name == null) {
+            reload();
+            name = names.get(id);
+        }
+        if (name == null) {
+            throw new IllegalStateException("Department " + id + " is not in the department table");
+        }
+        return name;
+    }
+
+    private boolean isReloadDue() {
+        return !loaded || System.nanoTime() - lastReloadNanos >= TimeUnit.MILLISECONDS.toNanos(minReloadIntervalMs);
+    }
+
+    // callers that waited for the monitor find the table read already
+    private synchronized void reloadIfDue() {
+        if (isReloadDue()) {
+            reload();
+        }
+    }
+
+    private synchronized void reload() {
+        employeeShards.runOnShard(EmployeeShards.HOME_SHARD, () -> jdbcTemplate.query(SELECT_SQL, row -> {
+            Integer id = row.getInt("id");
+            String name = row.getString("name");
+            if (names.putIfAbsent(id, name) == null) {
+                ids.put(name, id);
+            }
+        }));
+        lastReloadNanos = System.nanoTime();
+        loaded = true;
+    }
+}
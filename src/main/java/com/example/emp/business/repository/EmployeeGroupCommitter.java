@@ -0,0 +1,161 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.concurrent.GroupCommitQueue;
+import com.example.emp.business.handlers.ServiceOverloadedException;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.shard.EmployeeShards;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind path for new employees: concurrent creates are saved together in one
+ * transaction, so a burst of creates pays for one commit per group instead of one per employee.
+ * The caller still waits for the commit and gets the generated id or its own failure. With sharding,
+ * a group commits once per shard it touches.
+ */
+@Log4j2
+@Component
+public class EmployeeGroupCommitter {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${emp.group-commit.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${emp.group-commit.max-batch-size:100}")
+    private int maxBatchSize = 100;
+
+    @Value("${emp.group-commit.max-delay-ms:5}")
+    private long maxDelayMs = 5;
+
+    @Value("${emp.group-commit.queue-size:10000}")
+    private int queueSize = 10000;
+
+    @Value("${emp.group-commit.retry-after-seconds:1}")
+    private long retryAfterSeconds = 1;
+
+    private GroupCommitQueue<EmployeeDAO, EmployeeDAO> queue;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        transaction = new TransactionTemplate(transactionManager);
+        queue = new GroupCommitQueue<>("employee-group-commit", queueSize, maxBatchSize, maxDelayMs, this::commit);
+        queue.start();
+        meterRegistry.ifAvailable(this::registerMetrics);
+        log.info("Group commit of new employees is enabled: up to {} per commit, waiting at most {} ms", maxBatchSize, maxDelayMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return queue != null;
+    }
+
+    /**
+     * Saves a new employee with the next group and returns it with its generated id.
+     *
+     * @throws ServiceOverloadedException if the queue is full
+     */
+    public EmployeeDAO save(EmployeeDAO employee) {
+        if (employee.getDepartment() != null) {
+            departmentDictionary.register(employee.getDepartment());
+        }
+        try {
+            return queue.submit(employee);
+        } catch (RejectedExecutionException e) {
+            log.warn("Rejecting new employee: {}", e.getMessage());
+            throw new ServiceOverloadedException("The service is busy, please retry later.", retryAfterSeconds);
+        }
+    }
+
+    private List<EmployeeDAO> commit(List<EmployeeDAO> employees) {
+        if (!employeeShards.isSharded()) {
+            return saveInTransaction(employees);
+        }
+        Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        for (int i = 0; i < employees.size(); i++) {
+            positionsByShard.computeIfAbsent(employeeShards.shardOf(employees.get(i).getDepartment()), shard -> new ArrayList<>()).add(i);
+        }
+        // a failure retries the whole group one by one; employees of shards committed before keep their id and are saved again
+        EmployeeDAO[] saved = new EmployeeDAO[employees.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            List<EmployeeDAO> shardEmployees = positions.stream().map(employees::get).toList();
+            List<EmployeeDAO> savedOnShard = employeeShards.onShard(shard, () -> saveInTransaction(shardEmployees));
+            for (int i = 0; i < positions.size(); i++) {
+                saved[positions.get(i)] = savedOnShard.get(i);
+            }
+        });
+        return Arrays.asList(saved);
+    }
+
+    private List<EmployeeDAO> saveInTransaction(List<EmployeeDAO> employees) {
+        try {
+            return transaction.execute(status -> saveAll(employees));
+        } catch (RuntimeException | Error e) {
+            // the rollback took back the generated ids, the retry has to insert the employees instead of merging them
+            employees.forEach(employee -> employee.setId(null));
+            throw e;
+        }
+    }
+
+    private List<EmployeeDAO> saveAll(List<EmployeeDAO> employees) {
+        // ids are generated by identity columns, so the inserts are separate statements; the commit is shared
+        List<EmployeeDAO> saved = employeeRepository.saveAll(employees);
+        log.debug("Committing {} new employees", saved.size());
+        return saved;
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        Gauge.builder("emp.group-commit.queue-depth", queue, GroupCommitQueue::getQueueDepth)
+                .register(registry);
+        FunctionTimer.builder("emp.group-commit.flush", queue, GroupCommitQueue::getCommits,
+                        GroupCommitQueue::getCommitNanos, TimeUnit.NANOSECONDS)
+                .register(registry);
+        FunctionCounter.builder("emp.group-commit.items", queue, GroupCommitQueue::getCommittedItems)
+                .register(registry);
+        FunctionCounter.builder("emp.group-commit.failed", queue, GroupCommitQueue::getFailedItems)
+                .register(registry);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.repository.shard.EmployeeShards;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmap of the ids in the employee table, so lookups of ids that do not exist are
+ * answered without a query. Only "no" is definite, and only below the highest id seen by the load
+ * before the last one: identity ids are handed out before their transactions commit, so a lower id
+ * of another instance may still commit after a load has seen higher ones. One refresh interval later
+ * it is in the table. Ids above that mark are always looked up, as is everything before the second
+ * load completes. Creates and deletes of this instance update the bitmap right away; the
+ * table is read again every {@code emp.id-filter.refresh-interval-ms} to pick up everyone else's.
+ * With sharding, every shard is read and the highest id is kept per shard, as each has its own id block.
+ * The warm-up loads the bitmap before the instance reports ready; the refresh then starts one interval later.
+ */
+@Log4j2
+@Component
+public class EmployeeIdFilter {
+
+    private static final String SELECT_SQL = "SELECT id FROM employee";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${emp.id-filter.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${emp.id-filter.refresh-interval-ms:600000}")
+    private long refreshIntervalMs = 600000;
+
+    @Value("${emp.id-filter.fetch-size:10000}")
+    private int fetchSize = 10000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Roaring64NavigableMap ids;
+
+    private long[] highestLoadedIds;
+
+    // highest ids of the load before the last one, misses at or below them are definite
+    private long[] trustedIds;
+
+    // changes made while a load reads the table, applied on top of it
+    private List<Runnable> changesDuringLoad;
+
+    private ScheduledExecutorService loader;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || loader != null) {
+            return;
+        }
+        loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-id-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.scheduleWithFixedDelay(this::load, isLoaded() ? refreshIntervalMs : 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        meterRegistry.ifAvailable(registry -> Gauge.builder("emp.id-filter.ids", this, EmployeeIdFilter::size)
+                .register(registry));
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (loader != null) {
+            loader.shutdownNow();
+        }
+    }
+
+    /**
+     * {@code false} only if there is definitely no employee with this id.
+     */
+    public boolean mightContain(long id) {
+        lock.readLock().lock();
+        try {
+            return trustedIds == null || id > trustedIds[employeeShards.shardOfId(id)] || ids.contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Called after an employee is committed.
+     */
+    public void add(long id) {
+        change(() -> ids.addLong(id));
+    }
+
+    /**
+     * Called after employees are deleted or archived.
+     */
+    public void removeAll(Collection<Long> removed) {
+        change(() -> removed.forEach(ids::removeLong));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return ids == null ? 0 : ids.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            changesDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Roaring64NavigableMap loaded = new Roaring64NavigableMap();
+        long[] highest = new long[employeeShards.getShardCount()];
+        Arrays.fill(highest, -1);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(fetchSize);
+            for (int shard = 0; shard < highest.length; shard++) {
+                employeeShards.runOnShard(shard, () -> jdbcTemplate.query(SELECT_SQL, resultSet -> {
+                    long id = resultSet.getLong(1);
+                    loaded.addLong(id);
+                    int idShard = employeeShards.shardOfId(id);
+                    highest[idShard] = Math.max(highest[idShard], id);
+                }));
+            }
+            loaded.runOptimize();
+        } catch (RuntimeException e) {
+            log.warn("Loading employee ids failed, lookups keep going to the database: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                // the changes were applied to the current bitmap already
+                changesDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            ids = loaded;
+            trustedIds = highestLoadedIds;
+            highestLoadedIds = highest;
+            changesDuringLoad.forEach(Runnable::run);
+            changesDuringLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} employee ids up to id {} in {} ms ({} bytes)", loaded.getLongCardinality(), Arrays.stream(highest).max().getAsLong(),
+                System.currentTimeMillis() - startedAt, loaded.getLongSizeInBytes());
+    }
+
+    private boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return ids != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (ids != null) {
+                change.run();
+            }
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.model.IdRange;
+import com.example.emp.model.EmployeeQuery;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Runs the query with its column list, ordering and row limit in SQL. Attributes that were not
+     * selected are left {@code null} and the returned objects are not managed entities. Archived
+     * employees matching the query follow the current ones when the query includes them.
+     */
+    List<EmployeeDAO> findEmployees(EmployeeQuery employeeQuery);
+
+    Optional<EmployeeDAO> findArchivedEmployee(Long id);
+
+    /**
+     * Moves the employees to the archive table with one insert-select and one delete per chunk of ids,
+     * in a single transaction. Returns the number of employees moved.
+     */
+    int archiveEmployees(List<Long> ids);
+
+    /**
+     * Same as {@link #findEmployees(EmployeeQuery)}, but hands the rows to the consumer while the
+     * cursor is read instead of collecting them. Must be called inside a transaction; with sharding,
+     * on the one shard that holds the rows, see {@link com.example.emp.business.repository.shard.EmployeeShards#onShard}.
+     * A query over several shards reads each of them in a transaction of its own and merges the cursors.
+     */
+    void streamEmployees(EmployeeQuery employeeQuery, int fetchSize, Consumer<EmployeeDAO> consumer);
+
+    /**
+     * Distinct non-null departments of the employees matching the filters of the query, in alphabetical order.
+     */
+    List<String> findDepartments(EmployeeQuery employeeQuery);
+
+    /**
+     * Lowest and highest id of the employees matching the filters of the query, empty if none match.
+     */
+    Optional<IdRange> findIdRange(EmployeeQuery employeeQuery);
+
+    /**
+     * Number of employees matching the filters of the query. Only the filtered columns are read, so a count
+     * by department and hiring date is answered from idx_employee_department_year alone.
+     */
+    long countEmployees(EmployeeQuery employeeQuery);
+
+    /**
+     * Whether any employee matches the filters of the query; stops at the first match.
+     */
+    boolean existsEmployees(EmployeeQuery employeeQuery);
+}
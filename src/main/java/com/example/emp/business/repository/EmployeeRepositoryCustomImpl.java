@@ -0,0 +1,329 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.repository.model.EmployeeArchiveDAO;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.model.IdRange;
+import com.example.emp.business.repository.shard.EmployeeShards;
+import com.example.emp.business.repository.shard.ShardResults;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * With sharding, a query runs on the shards of its departments; queries over several shards run on
+ * all of them in parallel and their rows are merged here, streamed from a cursor per shard.
+ */
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    // Oracle rejects IN lists of more than 1000 expressions
+    private static final int MAX_IN_LIST_SIZE = 1000;
+
+    private static final int MERGE_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public List<EmployeeDAO> findEmployees(EmployeeQuery employeeQuery) {
+        List<EmployeeField> selectedFields = new ArrayList<>(employeeQuery.getFields());
+        List<Integer> shards = employeeShards.shardsOf(employeeQuery);
+        if (shards.size() == 1) {
+            return employeeShards.onShard(shards.get(0), () -> {
+                List<EmployeeDAO> employees = findEmployees(EmployeeDAO.class, employeeQuery, selectedFields);
+                if (employeeQuery.isIncludeArchived()) {
+                    employees.addAll(findEmployees(EmployeeArchiveDAO.class, employeeQuery, selectedFields));
+                }
+                return employees;
+            });
+        }
+
+        // only the merged rows are collected, the shards are read through cursors
+        List<EmployeeDAO> employees = new ArrayList<>();
+        mergeShards(EmployeeDAO.class, shards, employeeQuery, MERGE_FETCH_SIZE, employees::add);
+        if (employeeQuery.isIncludeArchived()) {
+            mergeShards(EmployeeArchiveDAO.class, shards, employeeQuery, MERGE_FETCH_SIZE, employees::add);
+        }
+        return employees;
+    }
+
+    @Override
+    public Optional<EmployeeDAO> findArchivedEmployee(Long id) {
+        return Optional.ofNullable(entityManager.find(EmployeeArchiveDAO.class, id))
+                .map(archived -> new EmployeeDAO(archived.getId(), archived.getName(), archived.getDepartment(),
+                        archived.getYearOfEmployment()));
+    }
+
+    @Override
+    @Transactional
+    public int archiveEmployees(List<Long> ids) {
+        int archived = 0;
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MAX_IN_LIST_SIZE, ids.size()));
+            entityManager.createQuery("insert into EmployeeArchiveDAO (id, name, department, yearOfEmployment, archivedAt) "
+                            + "select e.id, e.name, e.department, e.yearOfEmployment, local datetime from EmployeeDAO e where e.id in :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+            archived += entityManager.createQuery("delete from EmployeeDAO e where e.id in :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+        return archived;
+    }
+
+    @Override
+    public void streamEmployees(EmployeeQuery employeeQuery, int fetchSize, Consumer<EmployeeDAO> consumer) {
+        List<Integer> shards = employeeShards.shardsOf(employeeQuery);
+        if (shards.size() > 1) {
+            mergeShards(EmployeeDAO.class, shards, employeeQuery, fetchSize, consumer);
+            return;
+        }
+        employeeShards.runOnShard(shards.get(0), () -> streamEmployeesOnShard(EmployeeDAO.class, employeeQuery,
+                new ArrayList<>(employeeQuery.getFields()), fetchSize, consumer));
+    }
+
+    /**
+     * Reads every shard in a read-only transaction of its own and merges their rows by the sort of the query.
+     */
+    private <T> void mergeShards(Class<T> entityClass, List<Integer> shards, EmployeeQuery employeeQuery, int fetchSize,
+                                 Consumer<EmployeeDAO> consumer) {
+        List<EmployeeField> selectedFields = new ArrayList<>(employeeQuery.getFields());
+        List<EmployeeField> mergeFields = ShardResults.mergeFields(selectedFields, employeeQuery.getSort());
+        Consumer<EmployeeDAO> selected = mergeFields.size() == selectedFields.size() ? consumer : employee -> {
+            clearUnselected(employee, selectedFields);
+            consumer.accept(employee);
+        };
+        employeeShards.<EmployeeDAO>mergeCursors(shards,
+                rows -> readOnlyTransaction.executeWithoutResult(status ->
+                        streamEmployeesOnShard(entityClass, employeeQuery, mergeFields, fetchSize, rows)),
+                cursors -> ShardResults.merge(cursors, employeeQuery.getSort(), employeeQuery.getLimit(), selected));
+    }
+
+    private <T> void streamEmployeesOnShard(Class<T> entityClass, EmployeeQuery employeeQuery, List<EmployeeField> selectedFields,
+                                            int fetchSize, Consumer<EmployeeDAO> consumer) {
+        TypedQuery<Tuple> query = createQuery(entityClass, employeeQuery, selectedFields)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        try (Stream<Tuple> tuples = query.getResultStream()) {
+            tuples.forEach(tuple -> consumer.accept(toEmployee(tuple, selectedFields)));
+        }
+    }
+
+    @Override
+    public List<String> findDepartments(EmployeeQuery employeeQuery) {
+        List<List<String>> shardDepartments = employeeShards.scatter(employeeShards.shardsOf(employeeQuery),
+                shard -> findDepartmentsOnShard(employeeQuery));
+        if (shardDepartments.size() == 1) {
+            return shardDepartments.get(0);
+        }
+        // a department lives on one shard, the lists only need sorting together
+        TreeSet<String> departments = new TreeSet<>();
+        shardDepartments.forEach(departments::addAll);
+        return new ArrayList<>(departments);
+    }
+
+    private List<String> findDepartmentsOnShard(EmployeeQuery employeeQuery) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = builder.createQuery(String.class);
+        Root<EmployeeDAO> root = query.from(EmployeeDAO.class);
+
+        query.select(root.get("department"))
+                .distinct(true);
+        where(query, root, EmployeeSpecifications.<EmployeeDAO>matching(employeeQuery, departmentDictionary)
+                .and(EmployeeSpecifications.hasDepartment()));
+        // keys are in insertion order, the few names are sorted here instead of joining the dictionary
+        List<String> departments = new ArrayList<>(entityManager.createQuery(query).getResultList());
+        departments.sort(Comparator.naturalOrder());
+        return departments;
+    }
+
+    @Override
+    public Optional<IdRange> findIdRange(EmployeeQuery employeeQuery) {
+        List<IdRange> ranges = employeeShards.scatter(employeeShards.shardsOf(employeeQuery),
+                        shard -> findIdRangeOnShard(employeeQuery).orElse(null)).stream()
+                .filter(Objects::nonNull)
+                .toList();
+        if (ranges.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new IdRange(ranges.stream().mapToLong(IdRange::min).min().getAsLong(),
+                ranges.stream().mapToLong(IdRange::max).max().getAsLong()));
+    }
+
+    private Optional<IdRange> findIdRangeOnShard(EmployeeQuery employeeQuery) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<EmployeeDAO> root = query.from(EmployeeDAO.class);
+
+        query.multiselect(builder.min(root.<Long>get("id")), builder.max(root.<Long>get("id")));
+        where(query, root, EmployeeSpecifications.matching(employeeQuery, departmentDictionary));
+        Tuple range = entityManager.createQuery(query).getSingleResult();
+        if (range.get(0) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new IdRange(range.get(0, Long.class), range.get(1, Long.class)));
+    }
+
+    @Override
+    public long countEmployees(EmployeeQuery employeeQuery) {
+        return employeeShards.scatter(employeeShards.shardsOf(employeeQuery), shard -> countEmployeesOnShard(employeeQuery)).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    private long countEmployeesOnShard(EmployeeQuery employeeQuery) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<EmployeeDAO> root = query.from(EmployeeDAO.class);
+
+        query.select(builder.count(root));
+        where(query, root, EmployeeSpecifications.matching(employeeQuery, departmentDictionary));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public boolean existsEmployees(EmployeeQuery employeeQuery) {
+        return employeeShards.scatter(employeeShards.shardsOf(employeeQuery), shard -> existsEmployeesOnShard(employeeQuery)).stream()
+                .anyMatch(Boolean::booleanValue);
+    }
+
+    private boolean existsEmployeesOnShard(EmployeeQuery employeeQuery) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = builder.createQuery(Integer.class);
+        Root<EmployeeDAO> root = query.from(EmployeeDAO.class);
+
+        query.select(builder.literal(1));
+        where(query, root, EmployeeSpecifications.matching(employeeQuery, departmentDictionary));
+        return !entityManager.createQuery(query).setMaxResults(1).getResultList().isEmpty();
+    }
+
+    private <T> List<EmployeeDAO> findEmployees(Class<T> entityClass, EmployeeQuery employeeQuery, List<EmployeeField> selectedFields) {
+        return createQuery(entityClass, employeeQuery, selectedFields).getResultList().stream()
+                .map(tuple -> toEmployee(tuple, selectedFields))
+                .collect(Collectors.toList());
+    }
+
+    private <T> TypedQuery<Tuple> createQuery(Class<T> entityClass, EmployeeQuery employeeQuery, List<EmployeeField> selectedFields) {
+        HibernateCriteriaBuilder builder = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (EmployeeField field : selectedFields) {
+            selections.add(root.get(field.getAttribute()));
+        }
+        query.multiselect(selections);
+        where(query, root, EmployeeSpecifications.matching(employeeQuery, departmentDictionary));
+
+        if (employeeQuery.getSort().isSorted()) {
+            List<Order> orders = new ArrayList<>();
+            boolean ascending = true;
+            for (Sort.Order order : employeeQuery.getSort()) {
+                Expression<?> property = sortProperty(root, order.getProperty());
+                // nulls sort as the highest values on every database, which is what ShardResults merges by
+                orders.add(order.isAscending() ? builder.asc(property, false) : builder.desc(property, true));
+                ascending = order.isAscending();
+            }
+            // id breaks ties, so a limited result is the same on every call; in the direction of the last order,
+            // so the indexes ending with id return the rows in order whichever way they are scanned
+            if (employeeQuery.getSort().getOrderFor("id") == null) {
+                orders.add(ascending ? builder.asc(root.get("id")) : builder.desc(root.get("id")));
+            }
+            query.orderBy(orders);
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (employeeQuery.getLimit() != null) {
+            typedQuery.setMaxResults(employeeQuery.getLimit());
+        }
+        return typedQuery;
+    }
+
+    // the department column holds keys, its order is the order of the names in the dictionary
+    private Expression<?> sortProperty(Root<?> root, String property) {
+        if (EmployeeField.DEPARTMENT.getAttribute().equals(property)) {
+            return root.join("departmentRef", JoinType.LEFT).get("name");
+        }
+        return root.get(property);
+    }
+
+    private <T> void where(CriteriaQuery<?> query, Root<T> root, Specification<T> specification) {
+        Predicate predicate = specification.toPredicate(root, query, entityManager.getCriteriaBuilder());
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private void clearUnselected(EmployeeDAO employee, List<EmployeeField> selectedFields) {
+        for (EmployeeField field : EmployeeField.values()) {
+            if (!selectedFields.contains(field)) {
+                switch (field) {
+                    case ID -> employee.setId(null);
+                    case NAME -> employee.setName(null);
+                    case DEPARTMENT -> employee.setDepartment(null);
+                    case YEAR_OF_EMPLOYMENT -> employee.setYearOfEmployment(null);
+                }
+            }
+        }
+    }
+
+    private EmployeeDAO toEmployee(Tuple tuple, List<EmployeeField> selectedFields) {
+        EmployeeDAO employee = new EmployeeDAO();
+        for (int i = 0; i < selectedFields.size(); i++) {
+            switch (selectedFields.get(i)) {
+                case ID -> employee.setId(tuple.get(i, Long.class));
+                case NAME -> employee.setName(tuple.get(i, String.class));
+                case DEPARTMENT -> employee.setDepartment(tuple.get(i, String.class));
+                case YEAR_OF_EMPLOYMENT -> employee.setYearOfEmployment(tuple.get(i, LocalDate.class));
+            }
+        }
+        return employee;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.model.EmployeeQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Filters of an {@link EmployeeQuery} as one specification, so every combination of filters runs as
+ * a single query; the department and hiring date filters are served by idx_employee_department_year.
+ * Departments are compared by their dictionary key. The specifications only use the employee
+ * attributes, so they apply to the live and the archive table.
+ */
+public final class EmployeeSpecifications {
+
+    private EmployeeSpecifications() {
+    }
+
+    public static <T> Specification<T> matching(EmployeeQuery query, DepartmentDictionary departmentDictionary) {
+        List<Specification<T>> specifications = new ArrayList<>();
+        if (!query.getDepartments().isEmpty()) {
+            specifications.add(inDepartments(departmentDictionary.findAll(query.getDepartments())));
+        }
+        if (query.getYearOfEmploymentAfter() != null) {
+            specifications.add(hiredAfter(query.getYearOfEmploymentAfter()));
+        }
+        if (query.getYearOfEmploymentFrom() != null) {
+            specifications.add(hiredFrom(query.getYearOfEmploymentFrom()));
+        }
+        if (query.getYearOfEmploymentTo() != null) {
+            specifications.add(hiredTo(query.getYearOfEmploymentTo()));
+        }
+        if (query.getIdFrom() != null) {
+            specifications.add(idFrom(query.getIdFrom()));
+        }
+        if (query.getIdTo() != null) {
+            specifications.add(idBefore(query.getIdTo()));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    public static <T> Specification<T> inDepartments(Collection<Integer> departmentIds) {
+        if (departmentIds.isEmpty()) {
+            // none of the requested departments exists
+            return (root, query, builder) -> builder.disjunction();
+        }
+        if (departmentIds.size() == 1) {
+            Integer departmentId = departmentIds.iterator().next();
+            return (root, query, builder) -> builder.equal(root.get("departmentRef").get("id"), departmentId);
+        }
+        return (root, query, builder) -> root.get("departmentRef").get("id").in(departmentIds);
+    }
+
+    public static <T> Specification<T> hasDepartment() {
+        return (root, query, builder) -> builder.isNotNull(root.get("department"));
+    }
+
+    public static <T> Specification<T> hiredAfter(LocalDate date) {
+        return (root, query, builder) -> builder.greaterThan(root.get("yearOfEmployment"), date);
+    }
+
+    public static <T> Specification<T> hiredFrom(LocalDate date) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("yearOfEmployment"), date);
+    }
+
+    public static <T> Specification<T> hiredTo(LocalDate date) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("yearOfEmployment"), date);
+    }
+
+    public static <T> Specification<T> idFrom(long id) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("id"), id);
+    }
+
+    public static <T> Specification<T> idBefore(long id) {
+        return (root, query, builder) -> builder.lessThan(root.get("id"), id);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.emp.business.repository;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements executed on the current thread since the last {@link #reset()}. Statements
+ * are recorded by {@link SqlStatementCountingDataSource}, so Hibernate and {@code JdbcTemplate} are
+ * both counted. Work handed to other threads, such as the export workers and the shard scatter, is
+ * counted for the submitting thread when the task is wrapped with {@link #propagate(Callable)}.
+ */
+@Component
+public class SqlStatementCounter {
+
+    private static final int MAX_KEPT_STATEMENTS = 20;
+
+    private static final ThreadLocal<Statements> STATEMENTS = ThreadLocal.withInitial(Statements::new);
+
+    /**
+     * Wraps a task for another thread so its statements count for the thread that created it.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Statements owner = STATEMENTS.get();
+        return () -> {
+            Statements previous = STATEMENTS.get();
+            STATEMENTS.set(owner);
+            try {
+                return task.call();
+            } finally {
+                STATEMENTS.set(previous);
+            }
+        };
+    }
+
+    static void record(String sql) {
+        STATEMENTS.get().add(sql);
+    }
+
+    public void reset() {
+        // a fresh instance, workers of the previous request may still hold the old one
+        STATEMENTS.set(new Statements());
+    }
+
+    public int count() {
+        return STATEMENTS.get().count.get();
+    }
+
+    /**
+     * The first statements since the last reset, for log and assertion messages.
+     */
+    public List<String> statements() {
+        Statements current = STATEMENTS.get();
+        synchronized (current.kept) {
+            return Collections.unmodifiableList(new ArrayList<>(current.kept));
+        }
+    }
+
+    private static final class Statements {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final List<String> kept = new ArrayList<>();
+
+        void add(String sql) {
+            count.incrementAndGet();
+            synchronized (kept) {
+                if (kept.size() < MAX_KEPT_STATEMENTS) {
+                    kept.add(sql);
+                }
+            }
+        }
+    }
+}
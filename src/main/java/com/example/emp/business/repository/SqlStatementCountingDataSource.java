@@ -0,0 +1,86 @@
+package com.example.emp.business.repository;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Records every statement executed through the application data source with the {@link SqlStatementCounter}
+ * of the executing thread. A statement counts once per execution; a JDBC batch counts once.
+ */
+public class SqlStatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> PREPARE_METHODS = Set.of("prepareStatement", "prepareCall");
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public SqlStatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    private static Connection countingConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof CallableStatement statement && PREPARE_METHODS.contains(method.getName())) {
+                return countingStatement(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement && PREPARE_METHODS.contains(method.getName())) {
+                return countingStatement(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement && "createStatement".equals(method.getName())) {
+                return countingStatement(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S countingStatement(Class<S> type, S statement, String preparedSql) {
+        return proxy(type, statement, (proxy, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                boolean hasSql = args != null && args.length > 0 && args[0] instanceof String;
+                SqlStatementCounter.record(hasSql ? (String) args[0] : preparedSql != null ? preparedSql : "batch");
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        // proxies are compared by identity, like the pooled connections they stand for
+        return (T) Proxy.newProxyInstance(SqlStatementCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.emp.business.repository.model;
+
+import com.example.emp.business.repository.DepartmentDictionary;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Stores a department name as its key in the department dictionary. Names read back are the shared
+ * instances of the dictionary, so loaded employees do not hold a copy each. Only looks keys up: the
+ * write paths register a new department before the employee is persisted. Created by Hibernate
+ * through the Spring bean container; the dictionary is injected lazily as it needs the transaction
+ * manager, which is only built after the entity manager factory.
+ */
+@Converter
+public class DepartmentConverter implements AttributeConverter<String, Integer> {
+
+    @Lazy
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    @Override
+    public Integer convertToDatabaseColumn(String department) {
+        if (department == null) {
+            return null;
+        }
+        return departmentDictionary.find(department)
+                .orElseThrow(() -> new IllegalStateException("Department " + department + " is not registered in the department dictionary"));
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer departmentId) {
+        return departmentId == null ? null : departmentDictionary.name(departmentId);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.emp.business.repository.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Employees who left the organization. Rows are moved here from {@code employee} keeping their id,
+ * so the live table only holds current staff.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "employee_archive", indexes = {
+        @Index(name = "idx_employee_archive_department_year", columnList = "department_id, year_of_employment")})
+public class EmployeeArchiveDAO {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "name")
+    private String name;
+
+    @Convert(converter = DepartmentConverter.class)
+    @Column(name = "department_id")
+    private String department;
+
+    @Column(name = "year_of_employment")
+    private LocalDate yearOfEmployment;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "department_id", insertable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private DepartmentDAO departmentRef;
+}
@@ -2,22 +2,30 @@ package com.example.emp.business.repository.model;
 
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Index;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Entity
-@Table(name = "employee")
+@Table(name = "employee", indexes = {
+        @Index(name = "idx_employee_department_year", columnList = "department_id, year_of_employment, id"),
+        @Index(name = "idx_employee_year", columnList = "year_of_employment, id"),
+        @Index(name = "idx_employee_name", columnList = "name, id")})
 public class EmployeeDAO {
 
     @Id
@@ -28,9 +36,26 @@ public class EmployeeDAO {
     @Column(name = "name")
     private String name;
 
-    @Column(name = "department")
+    @Convert(converter = DepartmentConverter.class)
+    @Column(name = "department_id")
     private String department;
 
     @Column(name = "year_of_employment")
     private LocalDate yearOfEmployment;
+
+    /**
+     * Read-only view of the department key, used to filter by key and to sort by department name.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "department_id", insertable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private DepartmentDAO departmentRef;
+
+    public EmployeeDAO(Long id, String name, String department, LocalDate yearOfEmployment) {
+        this.id = id;
+        this.name = name;
+        this.department = department;
+        this.yearOfEmployment = yearOfEmployment;
+    }
 }
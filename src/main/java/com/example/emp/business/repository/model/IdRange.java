@@ -0,0 +1,7 @@
+package com.example.emp.business.repository.model;
+
+/**
+ * Inclusive range of employee ids.
+ */
+public record IdRange(long min, long max) {
+}
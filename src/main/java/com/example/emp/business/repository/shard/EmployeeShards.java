@@ -0,0 +1,317 @@
+package com.example.emp.business.repository.shard;
+
+import com.example.emp.business.repository.SqlStatementCounter;
+import com.example.emp.model.EmployeeQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Places employees on shards by a hash of their department name and runs work on the right shard.
+ * Every shard generates ids in its own block starting at {@code shard << ID_SHARD_SHIFT}, so ids stay
+ * unique and the shard of an id is known without a lookup. Without configured shards everything runs
+ * on the calling thread against the single database.
+ */
+@Log4j2
+@Component
+public class EmployeeShards {
+
+    /**
+     * Holds the department dictionary, employees without a department and every id below the first block.
+     */
+    public static final int HOME_SHARD = 0;
+
+    public static final int ID_SHARD_SHIFT = 40;
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${emp.sharding.scatter-threads:8}")
+    private int scatterThreads = 8;
+
+    @Value("${emp.sharding.merge-buffer-rows:1000}")
+    private int mergeBufferRows = 1000;
+
+    private int shardCount = 1;
+
+    private ExecutorService executor;
+
+    // one thread per open cursor, a bounded pool would stall merges that wait for a cursor behind another
+    private ExecutorService cursorExecutor;
+
+    @PostConstruct
+    public void start() {
+        ShardRoutingDataSource routingDataSource = shardRoutingDataSource.getIfAvailable();
+        if (routingDataSource == null) {
+            return;
+        }
+        shardCount = routingDataSource.getShardCount();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(scatterThreads, runnable -> {
+            Thread thread = new Thread(runnable, "employee-shard-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger cursorNumber = new AtomicInteger();
+        cursorExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "employee-shard-cursor-" + cursorNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Employees are sharded by department over {} databases", shardCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            cursorExecutor.shutdownNow();
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardOf(String department) {
+        return department == null ? HOME_SHARD : Math.floorMod(department.hashCode(), shardCount);
+    }
+
+    /**
+     * Ids beyond the last block belong to no shard and are looked up on the last one, where they are not found.
+     */
+    public int shardOfId(long id) {
+        return (int) Math.min(id >>> ID_SHARD_SHIFT, shardCount - 1);
+    }
+
+    public static long firstId(int shard) {
+        return shard == HOME_SHARD ? 1 : (long) shard << ID_SHARD_SHIFT;
+    }
+
+    /**
+     * Shards that may hold employees matching the query: those of the filtered departments, or all of
+     * them. Work that already runs on a shard stays there.
+     */
+    public List<Integer> shardsOf(EmployeeQuery query) {
+        Integer current = ShardContextHolder.getShard();
+        if (current != null) {
+            return List.of(current);
+        }
+        if (!isSharded()) {
+            return List.of(HOME_SHARD);
+        }
+        if (query.getDepartments().isEmpty()) {
+            return IntStream.range(0, shardCount).boxed().toList();
+        }
+        return query.getDepartments().stream().map(this::shardOf).distinct().sorted().toList();
+    }
+
+    /**
+     * Runs the action with connections of the shard. A transaction keeps the connection of its first
+     * statement, so the shard has to be chosen before it, or at least before it reads anything.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        Integer previous = ShardContextHolder.getShard();
+        ShardContextHolder.setShard(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContextHolder.setShard(previous);
+        }
+    }
+
+    public void runOnShard(int shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action on every shard in parallel and returns the results in the order of the shards.
+     * A single shard runs on the calling thread.
+     */
+    public <T> List<T> scatter(List<Integer> shards, IntFunction<T> action) {
+        if (shards.size() == 1) {
+            int shard = shards.get(0);
+            return Collections.singletonList(onShard(shard, () -> action.apply(shard)));
+        }
+        List<Future<T>> results = new ArrayList<>();
+        for (int shard : shards) {
+            results.add(executor.submit(SqlStatementCounter.propagate(() -> onShard(shard, () -> action.apply(shard)))));
+        }
+        List<T> gathered = new ArrayList<>();
+        try {
+            for (Future<T> result : results) {
+                gathered.add(await(result));
+            }
+        } catch (RuntimeException | Error e) {
+            results.forEach(result -> result.cancel(true));
+            throw e;
+        }
+        return gathered;
+    }
+
+    /**
+     * Opens a cursor on every shard at once and hands them to the merger, in the order of the shards.
+     * Every shard is read by the reader on a thread of its own with its own connection, and at most
+     * {@code emp.sharding.merge-buffer-rows} rows of a shard wait for the merger, so the rows of a shard
+     * are never all held. Readers still running when the merger returns are cancelled.
+     */
+    public <T> void mergeCursors(List<Integer> shards, Consumer<Consumer<T>> reader, Consumer<List<Iterator<T>>> merger) {
+        List<ShardCursor<T>> cursors = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int shard : shards) {
+                ShardCursor<T> cursor = new ShardCursor<>(mergeBufferRows);
+                cursors.add(cursor);
+                readers.add(cursorExecutor.submit(SqlStatementCounter.propagate(() -> {
+                    try {
+                        runOnShard(shard, () -> reader.accept(cursor::put));
+                        cursor.close(null);
+                    } catch (RuntimeException | Error e) {
+                        cursor.close(e);
+                    }
+                    return null;
+                })));
+            }
+            merger.accept(Collections.unmodifiableList(cursors));
+        } finally {
+            readers.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Runs the action once per shard with the ids on that shard, one shard after the other.
+     */
+    public <T> List<T> onShardsOfIds(Collection<Long> ids, Function<List<Long>, T> action) {
+        if (!isSharded()) {
+            return Collections.singletonList(action.apply(ids instanceof List<Long> list ? list : new ArrayList<>(ids)));
+        }
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (Long id : ids) {
+            idsByShard.computeIfAbsent(shardOfId(id), shard -> new ArrayList<>()).add(id);
+        }
+        List<T> results = new ArrayList<>();
+        idsByShard.forEach((shard, shardIds) -> results.add(onShard(shard, () -> action.apply(shardIds))));
+        return results;
+    }
+
+    /**
+     * Rows of one shard on their way from its reader to the merger, ended by a marker that carries the
+     * failure of the reader, if any.
+     */
+    private static final class ShardCursor<T> implements Iterator<T> {
+
+        private final BlockingQueue<Object> rows;
+
+        private Object next;
+
+        private ShardCursor(int capacity) {
+            rows = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void put(T row) {
+            try {
+                rows.put(row);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Shard cursor cancelled", e);
+            }
+        }
+
+        private void close(Throwable failure) {
+            try {
+                rows.put(new End(failure));
+            } catch (InterruptedException e) {
+                // cancelled, nobody reads the end any more
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                try {
+                    next = rows.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a shard", e);
+                }
+            }
+            if (next instanceof End end) {
+                if (end.failure() instanceof RuntimeException failure) {
+                    throw failure;
+                }
+                if (end.failure() instanceof Error failure) {
+                    throw failure;
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T row = (T) next;
+            next = null;
+            return row;
+        }
+
+        private record End(Throwable failure) {
+        }
+    }
+
+    private static <T> T await(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shard", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("A shard query failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.emp.business.repository.shard;
+
+/**
+ * The shard the current thread works on. Read by {@link ShardRoutingDataSource} when a connection is
+ * taken, so it has to be set before the first statement of a transaction; {@code null} means the home shard.
+ */
+public final class ShardContextHolder {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContextHolder() {
+    }
+
+    public static Integer getShard() {
+        return SHARD.get();
+    }
+
+    public static void setShard(Integer shard) {
+        if (shard == null) {
+            SHARD.remove();
+        } else {
+            SHARD.set(shard);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.emp.business.repository.shard;
+
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.model.EmployeeField;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Combines the rows that several shards returned for one query.
+ */
+public final class ShardResults {
+
+    private ShardResults() {
+    }
+
+    /**
+     * Merges the rows of the shard cursors in the order of the sort, taking the smallest head of the
+     * shards until the limit is reached, and hands them to the consumer as they are taken. Only the head
+     * of every cursor is held. Ascending order puts nulls last, as the shard queries do. Unsorted rows
+     * are concatenated in shard order.
+     */
+    public static void merge(List<? extends Iterator<EmployeeDAO>> shardRows, Sort sort, Integer limit,
+                             Consumer<EmployeeDAO> consumer) {
+        long remaining = limit == null ? Long.MAX_VALUE : limit;
+        if (sort.isUnsorted()) {
+            for (Iterator<EmployeeDAO> rows : shardRows) {
+                while (remaining > 0 && rows.hasNext()) {
+                    consumer.accept(rows.next());
+                    remaining--;
+                }
+            }
+            return;
+        }
+
+        Comparator<EmployeeDAO> comparator = comparator(sort);
+        PriorityQueue<Head> heads = new PriorityQueue<>((left, right) -> comparator.compare(left.row(), right.row()));
+        for (Iterator<EmployeeDAO> rows : shardRows) {
+            if (rows.hasNext()) {
+                heads.add(new Head(rows.next(), rows));
+            }
+        }
+        while (!heads.isEmpty() && remaining > 0) {
+            Head head = heads.poll();
+            consumer.accept(head.row());
+            remaining--;
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+    }
+
+    /**
+     * The fields a shard has to return so its rows can be merged: the requested ones, the sorted ones and the id.
+     */
+    public static List<EmployeeField> mergeFields(List<EmployeeField> fields, Sort sort) {
+        List<EmployeeField> mergeFields = new ArrayList<>(fields);
+        if (sort.isSorted()) {
+            for (Sort.Order order : sort) {
+                EmployeeField.fromAttribute(order.getProperty())
+                        .filter(field -> !mergeFields.contains(field))
+                        .ifPresent(mergeFields::add);
+            }
+            if (!mergeFields.contains(EmployeeField.ID)) {
+                mergeFields.add(EmployeeField.ID);
+            }
+        }
+        return mergeFields;
+    }
+
+    // the same order as the shard queries, with the id breaking ties in the direction of the last order
+    private static Comparator<EmployeeDAO> comparator(Sort sort) {
+        Comparator<EmployeeDAO> comparator = null;
+        boolean descending = false;
+        for (Sort.Order order : sort) {
+            Comparator<EmployeeDAO> next = comparator(order.getProperty());
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+            descending = order.isDescending();
+        }
+        if (sort.getOrderFor("id") == null) {
+            comparator = comparator.thenComparing(descending ? comparator("id").reversed() : comparator("id"));
+        }
+        return comparator;
+    }
+
+    private static Comparator<EmployeeDAO> comparator(String property) {
+        return switch (property) {
+            case "name" -> Comparator.comparing(EmployeeDAO::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+            case "department" -> Comparator.comparing(EmployeeDAO::getDepartment, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+            case "yearOfEmployment" -> Comparator.comparing(EmployeeDAO::getYearOfEmployment, Comparator.nullsLast(Comparator.<LocalDate>naturalOrder()));
+            default -> Comparator.comparing(EmployeeDAO::getId, Comparator.nullsLast(Comparator.<Long>naturalOrder()));
+        };
+    }
+
+    private record Head(EmployeeDAO row, Iterator<EmployeeDAO> rest) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.emp.business.repository.shard;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections of the shard in the {@link ShardContextHolder}, of the home shard when none is set.
+ */
+@Log4j2
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(EmployeeShards.HOME_SHARD));
+        // an unknown shard is a bug, not a reason to write to the home shard
+        setLenientFallback(false);
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContextHolder.getShard();
+    }
+
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Closing a shard data source failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
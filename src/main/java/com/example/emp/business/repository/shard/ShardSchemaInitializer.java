@@ -0,0 +1,121 @@
+package com.example.emp.business.repository.shard;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prepares the shards besides the home one, which Hibernate already set up: creates the tables if the
+ * schema is managed by Hibernate, copies the department dictionary and moves the id generation into
+ * the shard's id block.
+ */
+@Log4j2
+@Component
+public class ShardSchemaInitializer {
+
+    private static final Set<String> SCHEMA_CREATING_MODES = Set.of("create", "create-drop", "update");
+
+    private static final String HIGHEST_ID_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM employee UNION ALL SELECT id FROM employee_archive) ids";
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Value("${spring.jpa.hibernate.ddl-auto:none}")
+    private String ddlAuto = "none";
+
+    @PostConstruct
+    public void initialize() {
+        ShardRoutingDataSource routingDataSource = shardRoutingDataSource.getIfAvailable();
+        if (routingDataSource == null) {
+            return;
+        }
+        JdbcTemplate home = new JdbcTemplate(routingDataSource.getShard(EmployeeShards.HOME_SHARD));
+        for (int shard = 0; shard < routingDataSource.getShardCount(); shard++) {
+            if (shard == EmployeeShards.HOME_SHARD) {
+                continue;
+            }
+            DataSource dataSource = routingDataSource.getShard(shard);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            boolean oracle = databaseProduct(dataSource).startsWith("Oracle");
+            if (SCHEMA_CREATING_MODES.contains(ddlAuto) && !hasEmployeeTable(jdbcTemplate)) {
+                employeeShards.runOnShard(shard, () -> entityManagerFactory.unwrap(SessionFactory.class)
+                        .getSchemaManager()
+                        .exportMappedObjects(false));
+                log.info("Created the employee tables on shard {}", shard);
+            }
+            copyDepartments(home, jdbcTemplate, oracle);
+            startIdBlock(jdbcTemplate, shard, oracle);
+        }
+    }
+
+    private boolean hasEmployeeTable(JdbcTemplate jdbcTemplate) {
+        try {
+            jdbcTemplate.queryForList("SELECT id FROM employee WHERE 1 = 0");
+            return true;
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private void copyDepartments(JdbcTemplate home, JdbcTemplate shard, boolean oracle) {
+        if (oracle) {
+            // Hibernate creates identity columns that reject given keys on Oracle
+            shard.execute("ALTER TABLE department MODIFY id GENERATED BY DEFAULT AS IDENTITY");
+        }
+        Set<Integer> copied = Set.copyOf(shard.queryForList("SELECT id FROM department", Integer.class));
+        List<Map<String, Object>> departments = home.queryForList("SELECT id, name FROM department");
+        int added = 0;
+        for (Map<String, Object> department : departments) {
+            Integer id = ((Number) department.get("id")).intValue();
+            if (!copied.contains(id)) {
+                shard.update("INSERT INTO department (id, name) VALUES (?, ?)", id, department.get("name"));
+                added++;
+            }
+        }
+        if (added > 0) {
+            log.info("Copied {} departments to a shard", added);
+        }
+    }
+
+    private void startIdBlock(JdbcTemplate jdbcTemplate, int shard, boolean oracle) {
+        long firstId = EmployeeShards.firstId(shard);
+        Long highestId = jdbcTemplate.queryForObject(HIGHEST_ID_SQL, Long.class);
+        if (highestId != null && highestId >= firstId) {
+            return;
+        }
+        jdbcTemplate.execute(oracle
+                ? "ALTER TABLE employee MODIFY id GENERATED BY DEFAULT AS IDENTITY (START WITH " + firstId + ")"
+                : "ALTER TABLE employee ALTER COLUMN id RESTART WITH " + firstId);
+        log.info("Employee ids of shard {} start at {}", shard, firstId);
+    }
+
+    private static String databaseProduct(DataSource dataSource) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not connect to a shard", e);
+        }
+    }
+}
@@ -1,24 +1,67 @@
 package com.example.emp.business.service;
 
 import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface EmployeeService {
 
     Employee getEmployeeById(Long id);
 
+    /**
+     * Same as {@link #getEmployeeById(Long)}, but falls back to the archive when asked to.
+     */
+    Employee getEmployeeById(Long id, boolean includeArchived);
+
     List<Employee> getEmployees(String department, LocalDate year);
 
+    List<Employee> getEmployees(EmployeeQuery query);
+
+    long countEmployees(EmployeeQuery query);
+
+    boolean existsEmployees(EmployeeQuery query);
+
     Employee addEmployee(Employee employee);
 
+    /**
+     * Moves the employee to the archive; nothing happens if there is no current employee with this id.
+     */
     void deleteEmployee(Long id);
 
+    /**
+     * Moves the current employees among the ids to the archive in one transaction, one per shard when the
+     * employees are sharded, and returns how many were moved.
+     */
+    int archiveEmployees(Collection<Long> ids);
+
     boolean existsById(Long id);
 
     void exportToCSV(List<Employee> employees, HttpServletResponse response);
 
+    void exportToCSV(List<Employee> employees, Set<EmployeeField> fields, HttpServletResponse response);
+
+    /**
+     * Streams the employees matching the query into the response as they are read; returns {@code false}
+     * and leaves the response untouched if none match.
+     */
+    boolean exportToCSV(EmployeeQuery query, HttpServletResponse response);
+
+    boolean exportToCSVParallel(EmployeeQuery query, HttpServletResponse response);
+
     void exportToExcel(List<Employee> employees, HttpServletResponse response);
+
+    void exportToExcel(List<Employee> employees, Set<EmployeeField> fields, HttpServletResponse response);
+
+    /**
+     * Same as {@link #exportToCSV(EmployeeQuery, HttpServletResponse)} for a workbook with one sheet.
+     */
+    boolean exportToExcel(EmployeeQuery query, HttpServletResponse response);
+
+    boolean exportToExcelByDepartment(EmployeeQuery query, HttpServletResponse response);
 }
@@ -1,24 +1,58 @@
 package com.example.emp.business.service.impl;
 
+import com.example.emp.business.concurrent.SingleFlight;
+import com.example.emp.business.events.EmployeeEventHub;
+import com.example.emp.business.events.EmployeeEventType;
+import com.example.emp.business.export.ExportCache;
+import com.example.emp.business.export.ParallelCsvExporter;
+import com.example.emp.business.export.PartitionedExcelExporter;
 import com.example.emp.business.handlers.EmployeeNotFoundException;
 import com.example.emp.business.handlers.ExportException;
+import com.example.emp.business.handlers.ServiceOverloadedException;
 import com.example.emp.business.mappers.EmployeeMapStructMapper;
+import com.example.emp.business.profiling.CountingOutputStream;
+import com.example.emp.business.profiling.CountingWriter;
+import com.example.emp.business.profiling.EmployeeExportEvent;
+import com.example.emp.business.profiling.EmployeeMappingEvent;
+import com.example.emp.business.profiling.EmployeeQueryEvent;
+import com.example.emp.business.repository.DepartmentDictionary;
+import com.example.emp.business.repository.EmployeeGroupCommitter;
+import com.example.emp.business.repository.EmployeeIdFilter;
 import com.example.emp.business.repository.EmployeeRepository;
 import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.model.IdRange;
+import com.example.emp.business.repository.shard.EmployeeShards;
 import com.example.emp.business.service.EmployeeService;
 import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
 import com.opencsv.CSVWriter;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.log4j.Log4j2;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Log4j2
@@ -31,100 +65,465 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Autowired
     EmployeeMapStructMapper employeeMapStructMapper;
 
+    @Autowired
+    EmployeeEventHub employeeEventHub;
+
+    @Autowired
+    PartitionedExcelExporter partitionedExcelExporter;
+
+    @Autowired
+    ParallelCsvExporter parallelCsvExporter;
+
+    @Autowired
+    ExportCache exportCache;
+
+    @Autowired
+    EmployeeGroupCommitter employeeGroupCommitter;
+
+    @Autowired
+    EmployeeIdFilter employeeIdFilter;
+
+    @Autowired
+    DepartmentDictionary departmentDictionary;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EmployeeShards employeeShards;
+
+    @Value("${emp.coalescing.enabled:true}")
+    boolean coalescingEnabled = true;
+
+    @Value("${emp.coalescing.max-wait-ms:5000}")
+    long coalescingMaxWaitMs = 5000;
+
+    @Value("${emp.coalescing.retry-after-seconds:1}")
+    long coalescingRetryAfterSeconds = 1;
+
+    @Value("${emp.export.fetch-size:1000}")
+    int exportFetchSize = 1000;
+
+    @Value("${emp.export.rows-in-memory:100}")
+    int exportRowsInMemory = 100;
+
+    private final SingleFlight<Long, Employee> employeeByIdCalls = new SingleFlight<>();
+
+    private final SingleFlight<EmployeeQuery, List<Employee>> employeeListCalls = new SingleFlight<>();
+
     @Override
     public Employee getEmployeeById(Long id) {
-        return employeeRepository.findById(id).map(employeeMapStructMapper::employeeDAOToEmployee)
+        if (!employeeIdFilter.mightContain(id)) {
+            throw new EmployeeNotFoundException("Employee is not found or has left the organization.");
+        }
+        if (!coalescingEnabled) {
+            return loadEmployeeById(id);
+        }
+        return coalesce(employeeByIdCalls, id, () -> loadEmployeeById(id));
+    }
+
+    @Override
+    public Employee getEmployeeById(Long id, boolean includeArchived) {
+        if (!includeArchived) {
+            return getEmployeeById(id);
+        }
+        EmployeeQueryEvent event = new EmployeeQueryEvent();
+        event.begin();
+        // archiving keeps the id, so the archived row is on the same shard
+        Optional<EmployeeDAO> employeeDAO = employeeShards.onShard(employeeShards.shardOfId(id), () ->
+                (employeeIdFilter.mightContain(id) ? employeeRepository.findById(id) : Optional.<EmployeeDAO>empty())
+                        .or(() -> employeeRepository.findArchivedEmployee(id)));
+        commit(event, "byIdWithArchive", id, employeeDAO.isPresent() ? 1 : 0);
+        return employeeDAO
+                .map(employeeMapStructMapper::employeeDAOToEmployee)
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee is not found."));
+    }
+
+    private <K, V> V coalesce(SingleFlight<K, V> calls, K key, Supplier<V> loader) {
+        try {
+            return calls.execute(key, coalescingMaxWaitMs, loader);
+        } catch (RejectedExecutionException e) {
+            // running the query once more per waiter would only add load to the one that is already slow
+            log.warn("Rejecting coalesced query: {}", e.getMessage());
+            throw new ServiceOverloadedException("The service is busy, please retry later.", coalescingRetryAfterSeconds);
+        }
+    }
+
+    private Employee loadEmployeeById(Long id) {
+        EmployeeQueryEvent event = new EmployeeQueryEvent();
+        event.begin();
+        Optional<EmployeeDAO> employeeDAO = employeeShards.onShard(employeeShards.shardOfId(id), () -> employeeRepository.findById(id));
+        commit(event, "byId", id, employeeDAO.isPresent() ? 1 : 0);
+        return employeeDAO.map(employeeMapStructMapper::employeeDAOToEmployee)
                 .orElseThrow(() -> new EmployeeNotFoundException("Employee is not found or has left the organization."));
 
     }
 
     @Override
     public List<Employee> getEmployees(String department, LocalDate year) {
-        List<EmployeeDAO> employeeDAOList;
-
-        if (department != null && year != null) {
-            employeeDAOList = employeeRepository.findByDepartmentAndYearOfEmploymentAfter(department, year);
-            log.info("Filtered by department and year. Size: {}", employeeDAOList.size());
-        } else if (department != null) {
-            employeeDAOList = employeeRepository.findByDepartment(department);
-            log.info("Filtered by department only. Size: {}", employeeDAOList.size());
-        } else if (year != null) {
-            employeeDAOList = employeeRepository.findByYearOfEmploymentAfter(year);
-            log.info("Filtered by year only. Size: {}", employeeDAOList.size());
-        } else {
-            employeeDAOList = employeeRepository.findAll();
-            log.info("No filters applied. Returning all employees. Size: {}", employeeDAOList.size());
-        }
-
-        return employeeDAOList.stream()
+        return getEmployees(EmployeeQuery.of(department, year));
+    }
+
+    @Override
+    public List<Employee> getEmployees(EmployeeQuery query) {
+        if (!coalescingEnabled) {
+            return loadEmployees(query);
+        }
+        return coalesce(employeeListCalls, query, () -> loadEmployees(query));
+    }
+
+    @Override
+    public long countEmployees(EmployeeQuery query) {
+        EmployeeQueryEvent event = new EmployeeQueryEvent();
+        event.begin();
+        long count = employeeRepository.countEmployees(query);
+        commit(event, "count", query, count);
+        return query.getLimit() == null ? count : Math.min(count, query.getLimit());
+    }
+
+    @Override
+    public boolean existsEmployees(EmployeeQuery query) {
+        EmployeeQueryEvent event = new EmployeeQueryEvent();
+        event.begin();
+        boolean exists = employeeRepository.existsEmployees(query);
+        commit(event, "exists", query, exists ? 1 : 0);
+        return exists;
+    }
+
+    private List<Employee> loadEmployees(EmployeeQuery query) {
+        EmployeeQueryEvent queryEvent = new EmployeeQueryEvent();
+        queryEvent.begin();
+        List<EmployeeDAO> employeeDAOList = employeeRepository.findEmployees(query);
+        commit(queryEvent, "list", query, employeeDAOList.size());
+        log.info("Executed {}. Size: {}", query, employeeDAOList.size());
+
+        EmployeeMappingEvent mappingEvent = new EmployeeMappingEvent();
+        mappingEvent.begin();
+        List<Employee> employees = employeeDAOList.stream()
                 .map(employeeMapStructMapper::employeeDAOToEmployee)
                 .collect(Collectors.toList());
+        mappingEvent.end();
+        if (mappingEvent.shouldCommit()) {
+            mappingEvent.rows = employees.size();
+            mappingEvent.commit();
+        }
+        return employees;
     }
 
     @Override
     public Employee addEmployee(Employee employee) {
-        EmployeeDAO savedEmployeeDAO = employeeRepository
-                .save(employeeMapStructMapper.employeeToEmployeeDAO(employee));
-        return employeeMapStructMapper.employeeDAOToEmployee(savedEmployeeDAO);
+        EmployeeDAO employeeDAO = employeeMapStructMapper.employeeToEmployeeDAO(employee);
+        EmployeeDAO savedEmployeeDAO = employeeGroupCommitter.isEnabled()
+                ? employeeGroupCommitter.save(employeeDAO)
+                : saveOnShard(employeeDAO);
+        employeeIdFilter.add(savedEmployeeDAO.getId());
+        Employee savedEmployee = employeeMapStructMapper.employeeDAOToEmployee(savedEmployeeDAO);
+        exportCache.invalidate(savedEmployeeDAO.getDepartment());
+        employeeEventHub.publish(EmployeeEventType.CREATED, savedEmployee);
+        return savedEmployee;
+    }
+
+    private EmployeeDAO saveOnShard(EmployeeDAO employeeDAO) {
+        if (employeeDAO.getDepartment() != null) {
+            departmentDictionary.register(employeeDAO.getDepartment());
+        }
+        return employeeShards.onShard(employeeShards.shardOf(employeeDAO.getDepartment()), () -> employeeRepository.save(employeeDAO));
     }
 
     @Override
     public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
-        log.info("Employee with id {} is deleted", id);
+        archiveEmployees(List.of(id));
+    }
+
+    @Override
+    public int archiveEmployees(Collection<Long> ids) {
+        List<EmployeeDAO> leavers = employeeShards.onShardsOfIds(ids, employeeRepository::findAllById).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        if (leavers.isEmpty()) {
+            return 0;
+        }
+        List<Long> leaverIds = leavers.stream().map(EmployeeDAO::getId).collect(Collectors.toList());
+        // one transaction per shard
+        int archived = employeeShards.onShardsOfIds(leaverIds, employeeRepository::archiveEmployees).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        employeeIdFilter.removeAll(leaverIds);
+        log.info("{} employees are moved to the archive", archived);
+        for (EmployeeDAO employeeDAO : leavers) {
+            exportCache.invalidate(employeeDAO.getDepartment());
+            employeeEventHub.publish(EmployeeEventType.DELETED, employeeMapStructMapper.employeeDAOToEmployee(employeeDAO));
+        }
+        return archived;
     }
 
     @Override
     public boolean existsById(Long id) {
-        return employeeRepository.existsById(id);
+        return employeeIdFilter.mightContain(id)
+                && employeeShards.onShard(employeeShards.shardOfId(id), () -> employeeRepository.existsById(id));
     }
 
     @Override
     public void exportToCSV(List<Employee> employees, HttpServletResponse response) {
+        exportToCSV(employees, EmployeeField.ALL, response);
+    }
+
+    @Override
+    public void exportToCSV(List<Employee> employees, Set<EmployeeField> fields, HttpServletResponse response) {
         response.setContentType("text/csv");
         response.setHeader("Content-Disposition", "attachment; filename=employees.csv");
 
-        try (CSVWriter writer = new CSVWriter(response.getWriter())) {
-            writer.writeNext(new String[]{"ID", "Name", "Department", "YearOfEmployment"});
-            for (Employee emp : employees) {
-                writer.writeNext(new String[]{
-                        String.valueOf(emp.getId()),
-                        emp.getName(),
-                        emp.getDepartment(),
-                        String.valueOf(emp.getYearOfEmployment()),
-                });
+        EmployeeExportEvent event = new EmployeeExportEvent();
+        event.begin();
+        try {
+            CountingWriter output = new CountingWriter(response.getWriter(), charset(response));
+            try (CSVWriter writer = new CSVWriter(output)) {
+                writer.writeNext(fields.stream().map(EmployeeField::getHeader).toArray(String[]::new));
+                for (Employee emp : employees) {
+                    writer.writeNext(fields.stream().map(field -> field.format(emp)).toArray(String[]::new));
+                }
             }
+            commit(event, "csv", "list", employees.size(), output.getCount());
         } catch (IOException e) {
             throw new ExportException("Failed to export to CSV", e);
         }
     }
 
+    @Override
+    public boolean exportToCSV(EmployeeQuery query, HttpServletResponse response) {
+        EmployeeExportEvent event = new EmployeeExportEvent();
+        event.begin();
+        StreamedCsv csv = new StreamedCsv(query.getFields(), response);
+        try {
+            streamEmployees(query, employeeDAO -> csv.write(employeeMapStructMapper.employeeDAOToEmployee(employeeDAO)));
+            if (csv.rows == 0) {
+                return false;
+            }
+            csv.close();
+        } catch (IOException | UncheckedIOException e) {
+            throw new ExportException("Failed to export to CSV", e);
+        }
+        commit(event, "csv", "stream", csv.rows, csv.output.getCount());
+        return true;
+    }
+
+    @Override
+    public boolean exportToCSVParallel(EmployeeQuery query, HttpServletResponse response) {
+        Optional<IdRange> idRange = parallelCsvExporter.findIdRange(query);
+        if (idRange.isEmpty()) {
+            return false;
+        }
+        response.setContentType("text/csv");
+        response.setHeader("Content-Disposition", "attachment; filename=employees.csv");
+
+        EmployeeExportEvent event = new EmployeeExportEvent();
+        event.begin();
+        try (CountingWriter writer = new CountingWriter(response.getWriter(), charset(response))) {
+            long rows = parallelCsvExporter.export(query, idRange.get(), writer);
+            commit(event, "csv", "parallel", rows, writer.getCount());
+        } catch (IOException e) {
+            throw new ExportException("Failed to export to CSV", e);
+        }
+        return true;
+    }
+
     @Override
     public void exportToExcel(List<Employee> employees, HttpServletResponse response) {
+        exportToExcel(employees, EmployeeField.ALL, response);
+    }
+
+    @Override
+    public void exportToExcel(List<Employee> employees, Set<EmployeeField> fields, HttpServletResponse response) {
         response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
         response.setHeader("Content-Disposition", "attachment; filename=employees.xlsx");
 
+        EmployeeExportEvent event = new EmployeeExportEvent();
+        event.begin();
         try (XSSFWorkbook workbook = new XSSFWorkbook()) {
             Sheet sheet = workbook.createSheet("Employees");
 
             Row headerRow = sheet.createRow(0);
-            headerRow.createCell(0).setCellValue("ID");
-            headerRow.createCell(1).setCellValue("Name");
-            headerRow.createCell(2).setCellValue("Department");
-            headerRow.createCell(3).setCellValue("YearOfEmployment");
+            int column = 0;
+            for (EmployeeField field : fields) {
+                headerRow.createCell(column++).setCellValue(field.getHeader());
+            }
 
             int rowNum = 1;
             for (Employee emp : employees) {
                 Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(emp.getId());
-                row.createCell(1).setCellValue(emp.getName());
-                row.createCell(2).setCellValue(emp.getDepartment());
-                row.createCell(3).setCellValue(String.valueOf(emp.getYearOfEmployment()));
+                column = 0;
+                for (EmployeeField field : fields) {
+                    Cell cell = row.createCell(column++);
+                    if (field == EmployeeField.ID) {
+                        cell.setCellValue(emp.getId());
+                    } else {
+                        cell.setCellValue(field.format(emp));
+                    }
+                }
+            }
+
+            CountingOutputStream output = new CountingOutputStream(response.getOutputStream());
+            workbook.write(output);
+            commit(event, "xlsx", "list", employees.size(), output.getCount());
+        } catch (IOException e) {
+            throw new ExportException("Failed to export to Excel", e);
+        }
+    }
+
+    @Override
+    public boolean exportToExcel(EmployeeQuery query, HttpServletResponse response) {
+        Set<EmployeeField> fields = query.getFields();
+        EmployeeExportEvent event = new EmployeeExportEvent();
+        event.begin();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, exportRowsInMemory, true, false);
+        try {
+            Sheet sheet = workbook.createSheet("Employees");
+            Row headerRow = sheet.createRow(0);
+            int column = 0;
+            for (EmployeeField field : fields) {
+                headerRow.createCell(column++).setCellValue(field.getHeader());
             }
 
-            workbook.write(response.getOutputStream());
+            AtomicInteger rowNum = new AtomicInteger(1);
+            streamEmployees(query, employeeDAO -> {
+                Employee emp = employeeMapStructMapper.employeeDAOToEmployee(employeeDAO);
+                Row row = sheet.createRow(rowNum.getAndIncrement());
+                int cellNum = 0;
+                for (EmployeeField field : fields) {
+                    Cell cell = row.createCell(cellNum++);
+                    if (field == EmployeeField.ID) {
+                        cell.setCellValue(emp.getId());
+                    } else {
+                        cell.setCellValue(field.format(emp));
+                    }
+                }
+            });
+            int rows = rowNum.get() - 1;
+            if (rows == 0) {
+                return false;
+            }
+
+            response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+            response.setHeader("Content-Disposition", "attachment; filename=employees.xlsx");
+            CountingOutputStream output = new CountingOutputStream(response.getOutputStream());
+            workbook.write(output);
+            commit(event, "xlsx", "stream", rows, output.getCount());
+            return true;
         } catch (IOException e) {
             throw new ExportException("Failed to export to Excel", e);
+        } finally {
+            workbook.dispose();
+            closeQuietly(workbook);
+        }
+    }
+
+    @Override
+    public boolean exportToExcelByDepartment(EmployeeQuery query, HttpServletResponse response) {
+        List<String> departments = partitionedExcelExporter.findDepartments(query);
+        if (departments.isEmpty()) {
+            return false;
+        }
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment; filename=employees.xlsx");
+
+        EmployeeExportEvent event = new EmployeeExportEvent();
+        event.begin();
+        try {
+            CountingOutputStream output = new CountingOutputStream(response.getOutputStream());
+            int rows = partitionedExcelExporter.export(query, departments, output);
+            commit(event, "xlsx", "partitioned", rows, output.getCount());
+        } catch (IOException e) {
+            throw new ExportException("Failed to export to Excel", e);
+        }
+        return true;
+    }
+
+    // one shard is read in a read-only transaction of its own, the repository merges several shards itself
+    private void streamEmployees(EmployeeQuery query, Consumer<EmployeeDAO> consumer) {
+        List<Integer> shards = employeeShards.shardsOf(query);
+        if (shards.size() > 1) {
+            employeeRepository.streamEmployees(query, exportFetchSize, consumer);
+            return;
+        }
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        employeeShards.runOnShard(shards.get(0), () -> readOnlyTransaction.executeWithoutResult(status ->
+                employeeRepository.streamEmployees(query, exportFetchSize, consumer)));
+    }
+
+    private static void closeQuietly(SXSSFWorkbook workbook) {
+        try {
+            workbook.close();
+        } catch (IOException e) {
+            log.debug("Closing an export workbook failed", e);
+        }
+    }
+
+    private static Charset charset(HttpServletResponse response) {
+        String encoding = response.getCharacterEncoding();
+        return encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding);
+    }
+
+    private static void commit(EmployeeQueryEvent event, String kind, Object query, long rows) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.query = String.valueOf(query);
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    private static void commit(EmployeeExportEvent event, String format, String mode, long rows, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.format = format;
+            event.mode = mode;
+            event.rows = rows;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * CSV written to the response row by row. The response is only opened with the first row, so an
+     * export without rows leaves it to the caller.
+     */
+    private static final class StreamedCsv {
+
+        private final Set<EmployeeField> fields;
+
+        private final HttpServletResponse response;
+
+        private CountingWriter output;
+
+        private CSVWriter writer;
+
+        private long rows;
+
+        private StreamedCsv(Set<EmployeeField> fields, HttpServletResponse response) {
+            this.fields = fields;
+            this.response = response;
+        }
+
+        void write(Employee employee) {
+            if (writer == null) {
+                response.setContentType("text/csv");
+                response.setHeader("Content-Disposition", "attachment; filename=employees.csv");
+                try {
+                    output = new CountingWriter(response.getWriter(), charset(response));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                writer = new CSVWriter(output);
+                writer.writeNext(fields.stream().map(EmployeeField::getHeader).toArray(String[]::new));
+            }
+            writer.writeNext(fields.stream().map(field -> field.format(employee)).toArray(String[]::new));
+            rows++;
+        }
+
+        void close() throws IOException {
+            writer.close();
         }
     }
 }
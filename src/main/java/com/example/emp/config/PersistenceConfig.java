@@ -0,0 +1,66 @@
+package com.example.emp.config;
+
+import com.example.emp.business.repository.SqlStatementCountingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * The servlet data source is declared here instead of being left to {@code DataSourceAutoConfiguration},
+ * which backs off as soon as an R2DBC {@code ConnectionFactory} bean exists. The application data source,
+ * sharded or not, counts the statements of every request.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Conditional(NotSharded.class)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlStatementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // only the primary data source, the shard pools are reached through it
+                return "dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        ? new SqlStatementCountingDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    /**
+     * {@link ShardingConfig} declares the data source when shards are configured.
+     */
+    static class NotSharded extends NoneNestedConditions {
+
+        NotSharded() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty("emp.sharding.shards[0].url")
+        static class Sharded {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.emp.config;
+
+import com.example.emp.business.repository.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces {@code spring.datasource} with the databases listed under {@code emp.sharding.shards}, the
+ * first one being the home shard.
+ */
+@Configuration
+@ConditionalOnProperty("emp.sharding.shards[0].url")
+public class ShardingConfig {
+
+    @Value("${spring.jpa.open-in-view:true}")
+    private boolean openInView = true;
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(Environment environment) {
+        if (openInView) {
+            // the entity manager of a request keeps its first connection, so the request would stay on one shard
+            throw new IllegalStateException("Sharding requires spring.jpa.open-in-view=false");
+        }
+        List<DataSourceProperties> shards = Binder.get(environment)
+                .bind("emp.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+                .get();
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            HikariDataSource dataSource = shards.get(shard).initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            dataSource.setPoolName("emp-shard-" + shard);
+            dataSources.add(dataSource);
+        }
+        return new ShardRoutingDataSource(dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        // a transaction takes its connection at the first statement, after the shard is chosen
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.emp.config;
+
+import com.example.emp.web.converter.BinaryObjectMappers;
+import com.example.emp.web.limit.ConcurrencyLimitInterceptor;
+import com.example.emp.web.sql.SqlStatementCountInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @Autowired
+    private SqlStatementCountInterceptor sqlStatementCountInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(concurrencyLimitInterceptor)
+                .addPathPatterns("/employees/**", "/employees")
+                .excludePathPatterns("/employees/stream");
+        registry.addInterceptor(sqlStatementCountInterceptor)
+                .addPathPatterns("/employees/**", "/employees")
+                .excludePathPatterns("/employees/stream");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // JSON stays first and remains the default; the binary formats are only used when asked for in Accept
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(BinaryObjectMappers.smile()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(BinaryObjectMappers.cbor()));
+    }
+}
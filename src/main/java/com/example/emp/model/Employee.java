@@ -2,6 +2,7 @@ package com.example.emp.model;
 
 import com.example.emp.business.validation.NotEmptyLocalDate;
 import com.example.emp.swagger.DescriptionVariables;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,6 +20,7 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Employee {
 
     private static final String CONTAIN_LETTERS_MESSAGE = "Field must contain only letters";
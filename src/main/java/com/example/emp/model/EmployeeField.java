@@ -0,0 +1,63 @@
+package com.example.emp.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public enum EmployeeField {
+
+    ID("id", "ID", employee -> String.valueOf(employee.getId())),
+    NAME("name", "Name", Employee::getName),
+    DEPARTMENT("department", "Department", Employee::getDepartment),
+    YEAR_OF_EMPLOYMENT("yearOfEmployment", "YearOfEmployment", employee -> String.valueOf(employee.getYearOfEmployment()));
+
+    public static final Set<EmployeeField> ALL = Collections.unmodifiableSet(EnumSet.allOf(EmployeeField.class));
+
+    private final String attribute;
+    private final String header;
+    private final Function<Employee, String> formatter;
+
+    EmployeeField(String attribute, String header, Function<Employee, String> formatter) {
+        this.attribute = attribute;
+        this.header = header;
+        this.formatter = formatter;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public String format(Employee employee) {
+        return formatter.apply(employee);
+    }
+
+    /**
+     * Parses a comma separated list of attribute names, e.g. {@code id,name}. The result keeps
+     * the declaration order of the constants, so exported columns always come in the same order.
+     *
+     * @throws IllegalArgumentException with a message for the client if a name is unknown
+     */
+    public static Set<EmployeeField> parse(String fields) {
+        EnumSet<EmployeeField> selected = EnumSet.noneOf(EmployeeField.class);
+        for (String name : fields.split(",")) {
+            selected.add(fromAttribute(name.trim()).orElseThrow(() -> new IllegalArgumentException(
+                    "Invalid fields. Supported fields are: "
+                            + Arrays.stream(values()).map(EmployeeField::getAttribute).collect(Collectors.joining(", ")) + ".")));
+        }
+        return selected;
+    }
+
+    public static Optional<EmployeeField> fromAttribute(String attribute) {
+        return Arrays.stream(values())
+                .filter(field -> field.attribute.equalsIgnoreCase(attribute))
+                .findFirst();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.emp.model;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Value
+@Builder(toBuilder = true)
+public class EmployeeQuery {
+
+    private static final Set<EmployeeField> SORTABLE_FIELDS =
+            EnumSet.of(EmployeeField.NAME, EmployeeField.DEPARTMENT, EmployeeField.YEAR_OF_EMPLOYMENT);
+
+    /**
+     * Matches employees of any of these departments, all departments when empty.
+     */
+    @Builder.Default
+    Set<String> departments = Set.of();
+
+    LocalDate yearOfEmploymentAfter;
+
+    /**
+     * Inclusive bounds of the hiring date.
+     */
+    LocalDate yearOfEmploymentFrom;
+
+    LocalDate yearOfEmploymentTo;
+
+    @Builder.Default
+    Set<EmployeeField> fields = EmployeeField.ALL;
+
+    @Builder.Default
+    Sort sort = Sort.unsorted();
+
+    Integer limit;
+
+    /**
+     * Inclusive lower and exclusive upper bound of the id, used to split a query into id ranges.
+     */
+    Long idFrom;
+
+    Long idTo;
+
+    /**
+     * Also returns matching employees from the archive, after the current ones. Only honoured by
+     * {@code findEmployees}; sort and limit apply to each table separately.
+     */
+    boolean includeArchived;
+
+    public static EmployeeQuery of(String department, LocalDate yearOfEmploymentAfter) {
+        return EmployeeQuery.builder()
+                .departments(department == null ? Set.of() : Set.of(department))
+                .yearOfEmploymentAfter(yearOfEmploymentAfter)
+                .build();
+    }
+
+    /**
+     * Builds a query from request parameters. {@code sort} is a comma separated list of attributes,
+     * a leading {@code -} sorts descending, e.g. {@code -yearOfEmployment,name}.
+     *
+     * @throws IllegalArgumentException with a message for the client if a parameter is invalid
+     */
+    public static EmployeeQuery parse(Collection<String> departments, LocalDate yearOfEmploymentAfter, LocalDate yearFrom,
+                                      LocalDate yearTo, String fields, String sort, Integer limit) {
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit must be a positive number, provided limit is: " + limit);
+        }
+        if (yearFrom != null && yearTo != null && yearFrom.isAfter(yearTo)) {
+            throw new IllegalArgumentException("yearFrom must not be after yearTo, provided range is: " + yearFrom + " - " + yearTo);
+        }
+        return EmployeeQuery.builder()
+                .departments(departments == null ? Set.of() : departments.stream()
+                        .filter(department -> department != null && !department.isBlank())
+                        .collect(Collectors.toUnmodifiableSet()))
+                .yearOfEmploymentAfter(yearOfEmploymentAfter)
+                .yearOfEmploymentFrom(yearFrom)
+                .yearOfEmploymentTo(yearTo)
+                .fields(fields == null ? EmployeeField.ALL : EmployeeField.parse(fields))
+                .sort(sort == null ? Sort.unsorted() : parseSort(sort))
+                .limit(limit)
+                .build();
+    }
+
+    private static Sort parseSort(String sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String token : sort.split(",")) {
+            String trimmed = token.trim();
+            boolean descending = trimmed.startsWith("-");
+            EmployeeField field = EmployeeField.fromAttribute(descending ? trimmed.substring(1) : trimmed)
+                    .filter(SORTABLE_FIELDS::contains)
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid sort. Supported sort fields are: "
+                            + SORTABLE_FIELDS.stream().map(EmployeeField::getAttribute).collect(Collectors.joining(", "))
+                            + ", prefixed with '-' for descending order."));
+            orders.add(descending ? Sort.Order.desc(field.getAttribute()) : Sort.Order.asc(field.getAttribute()));
+        }
+        return Sort.by(orders);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.emp.reactive;
+
+import com.example.emp.business.handlers.EmployeeNotFoundException;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import com.opencsv.CSVWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Handlers of the reactive employee API. Requests and responses match {@code EmployeeController};
+ * lists and exports are written while the rows are read, at the pace the client takes them.
+ */
+@Log4j2
+class ReactiveEmployeeHandler {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final ReactiveEmployeeService reactiveEmployeeService;
+
+    private final Validator validator;
+
+    ReactiveEmployeeHandler(ReactiveEmployeeService reactiveEmployeeService, Validator validator) {
+        this.reactiveEmployeeService = reactiveEmployeeService;
+        this.validator = validator;
+    }
+
+    Mono<ServerResponse> getEmployees(ServerRequest request) {
+        EmployeeQuery query;
+        try {
+            query = query(request, "year");
+        } catch (IllegalArgumentException e) {
+            log.warn("Received request with invalid parameters: {}", e.getMessage());
+            return ServerResponse.badRequest().bodyValue(e.getMessage());
+        }
+        return ServerResponse.ok()
+                .contentType(listContentType(request))
+                .body(reactiveEmployeeService.getEmployees(query), Employee.class);
+    }
+
+    /**
+     * Lists stream as NDJSON, one employee per line as rows are read, unless the client asks for a
+     * JSON array like the one of the servlet API.
+     */
+    private static MediaType listContentType(ServerRequest request) {
+        List<MediaType> accepted = request.headers().accept();
+        boolean jsonArray = accepted.stream().anyMatch(MediaType.APPLICATION_JSON::equalsTypeAndSubtype)
+                && accepted.stream().noneMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        return jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON;
+    }
+
+    Mono<ServerResponse> getEmployeeById(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        if (id <= 0) {
+            log.warn("Received request with invalid ID: {}", id);
+            return ServerResponse.badRequest().bodyValue("ID must be a positive number, provide ID is: " + id);
+        }
+        return reactiveEmployeeService.getEmployeeById(id)
+                .flatMap(employee -> ServerResponse.ok().bodyValue(employee))
+                .onErrorResume(EmployeeNotFoundException.class,
+                        e -> ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(e.getMessage()));
+    }
+
+    Mono<ServerResponse> createEmployee(ServerRequest request) {
+        return request.bodyToMono(Employee.class)
+                .flatMap(employee -> {
+                    Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+                    if (!violations.isEmpty()) {
+                        List<String> errorMessages = violations.stream()
+                                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                                .collect(Collectors.toList());
+                        return ServerResponse.badRequest().bodyValue(errorMessages);
+                    }
+                    if (employee.getId() != null) {
+                        return ServerResponse.badRequest().bodyValue("ID must not be included in the request for a new entity");
+                    }
+                    return reactiveEmployeeService.addEmployee(employee)
+                            .flatMap(savedEmployee -> ServerResponse.status(HttpStatus.CREATED).bodyValue(savedEmployee));
+                })
+                .onErrorResume(ServerWebInputException.class,
+                        e -> ServerResponse.badRequest().bodyValue("Invalid request format. Please check your input and try again."));
+    }
+
+    Mono<ServerResponse> deleteEmployee(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        if (id <= 0) {
+            log.warn("Received request with invalid ID: {}", id);
+            return ServerResponse.badRequest().bodyValue("ID must be a positive number, provide ID is: " + id);
+        }
+        return reactiveEmployeeService.deleteEmployee(id)
+                .flatMap(deleted -> deleted ? ServerResponse.noContent().build() : ServerResponse.notFound().build());
+    }
+
+    Mono<ServerResponse> exportEmployees(ServerRequest request) {
+        String format = request.queryParam("format").orElse("csv").toLowerCase();
+        if (!"csv".equals(format)) {
+            return ServerResponse.badRequest().bodyValue("Invalid format. The reactive API only exports 'csv'.");
+        }
+        EmployeeQuery query;
+        try {
+            query = query(request, "yearAfter");
+        } catch (IllegalArgumentException e) {
+            return ServerResponse.badRequest().bodyValue(e.getMessage());
+        }
+
+        Set<EmployeeField> fields = query.getFields();
+        Flux<String> lines = Flux.concat(
+                Mono.fromSupplier(() -> csvLine(fields.stream().map(EmployeeField::getHeader).toArray(String[]::new))),
+                reactiveEmployeeService.getEmployees(query)
+                        .map(employee -> csvLine(fields.stream().map(field -> field.format(employee)).toArray(String[]::new))));
+        Flux<DataBuffer> body = lines.map(line -> DefaultDataBufferFactory.sharedInstance.wrap(line.getBytes(StandardCharsets.UTF_8)));
+
+        return reactiveEmployeeService.existsEmployees(query)
+                .flatMap(exists -> exists
+                        ? ServerResponse.ok()
+                                .contentType(TEXT_CSV)
+                                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=employees.csv")
+                                .body(BodyInserters.fromDataBuffers(body))
+                        : ServerResponse.status(HttpStatus.NO_CONTENT).bodyValue("No employees found for the given criteria."));
+    }
+
+    /**
+     * Same parameters and validation as the servlet API; a department value may be a comma separated list.
+     */
+    private static EmployeeQuery query(ServerRequest request, String yearParameter) {
+        List<String> departments = request.queryParams().getOrDefault("department", List.of()).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .collect(Collectors.toList());
+        return EmployeeQuery.parse(departments, date(request, yearParameter), date(request, "yearFrom"), date(request, "yearTo"),
+                request.queryParam("fields").orElse(null), request.queryParam("sort").orElse(null),
+                request.queryParam("limit").map(limit -> parse(limit, "limit")).orElse(null));
+    }
+
+    private static LocalDate date(ServerRequest request, String name) {
+        try {
+            return request.queryParam(name).map(LocalDate::parse).orElse(null);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid format for parameter: " + name + ". Please provide a valid value.");
+        }
+    }
+
+    private static Integer parse(String value, String name) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid format for parameter: " + name + ". Please provide a valid value.");
+        }
+    }
+
+    // same quoting as the servlet export, which writes through the same CSVWriter
+    private static String csvLine(String[] values) {
+        StringWriter line = new StringWriter(64);
+        new CSVWriter(line).writeNext(values);
+        return line.toString();
+    }
+}
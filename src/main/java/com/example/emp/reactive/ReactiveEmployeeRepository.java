@@ -0,0 +1,185 @@
+package com.example.emp.reactive;
+
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking access to the employee tables over R2DBC, with the same filters, ordering and limit
+ * as the JPA repository. Rows are emitted as the driver reads them, so a slow subscriber holds back
+ * the reads instead of buffering the whole result. A bean of the reactive child context only, see
+ * {@link ReactiveWebConfig}.
+ */
+public class ReactiveEmployeeRepository {
+
+    private static final String SELECT_SQL = "SELECT e.id, e.name, d.name AS department, e.year_of_employment "
+            + "FROM employee e LEFT JOIN department d ON d.id = e.department_id";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            EmployeeField.NAME.getAttribute(), "e.name",
+            EmployeeField.DEPARTMENT.getAttribute(), "d.name",
+            EmployeeField.YEAR_OF_EMPLOYMENT.getAttribute(), "e.year_of_employment");
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    private DatabaseClient databaseClient;
+
+    private TransactionalOperator transactionalOperator;
+
+    @PostConstruct
+    public void start() {
+        databaseClient = DatabaseClient.create(connectionFactory);
+        // a local transaction manager, a second TransactionManager bean would make @Transactional ambiguous
+        transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    public Flux<Employee> findEmployees(EmployeeQuery query) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder sql = new StringBuilder(SELECT_SQL).append(where(query, parameters));
+        if (query.getSort().isSorted()) {
+            List<String> orders = new ArrayList<>();
+            String direction = " ASC";
+            for (Sort.Order order : query.getSort()) {
+                direction = order.isAscending() ? " ASC" : " DESC";
+                orders.add(SORT_COLUMNS.get(order.getProperty()) + direction);
+            }
+            // the same tie-break as the servlet queries
+            orders.add("e.id" + direction);
+            sql.append(" ORDER BY ").append(String.join(", ", orders));
+        }
+        if (query.getLimit() != null) {
+            sql.append(" FETCH FIRST ").append(query.getLimit()).append(" ROWS ONLY");
+        }
+        return bind(databaseClient.sql(sql.toString()), parameters)
+                .map(row -> select(toEmployee(row), query))
+                .all();
+    }
+
+    public Mono<Boolean> existsEmployees(EmployeeQuery query) {
+        Map<String, Object> parameters = new HashMap<>();
+        String sql = "SELECT e.id FROM employee e" + where(query, parameters) + " FETCH FIRST 1 ROWS ONLY";
+        return bind(databaseClient.sql(sql), parameters)
+                .map(row -> 1)
+                .first()
+                .hasElement();
+    }
+
+    public Mono<Employee> findById(Long id) {
+        return databaseClient.sql(SELECT_SQL + " WHERE e.id = :id")
+                .bind("id", id)
+                .map(this::toEmployee)
+                .one();
+    }
+
+    public Mono<Employee> insert(Employee employee) {
+        return departmentId(employee.getDepartment())
+                .flatMap(departmentId -> databaseClient.sql("INSERT INTO employee (name, department_id, year_of_employment) "
+                                + "VALUES (:name, :departmentId, :yearOfEmployment)")
+                        .bind("name", employee.getName())
+                        .bind("departmentId", departmentId)
+                        .bind("yearOfEmployment", employee.getYearOfEmployment())
+                        .filter(statement -> statement.returnGeneratedValues("id"))
+                        .map(row -> row.get("id", Long.class))
+                        .one())
+                .map(id -> new Employee(id, employee.getName(), employee.getDepartment(), employee.getYearOfEmployment()));
+    }
+
+    /**
+     * Moves the employee to the archive table in one transaction, as the JPA repository does.
+     * Emits the number of moved employees, zero for an unknown id.
+     */
+    public Mono<Long> archive(Long id) {
+        return databaseClient.sql("INSERT INTO employee_archive (id, name, department_id, year_of_employment, archived_at) "
+                        + "SELECT id, name, department_id, year_of_employment, CURRENT_TIMESTAMP FROM employee WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .then(databaseClient.sql("DELETE FROM employee WHERE id = :id")
+                        .bind("id", id)
+                        .fetch()
+                        .rowsUpdated())
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Integer> departmentId(String department) {
+        Mono<Integer> existing = databaseClient.sql("SELECT id FROM department WHERE name = :name")
+                .bind("name", department)
+                .map(row -> row.get("id", Integer.class))
+                .one();
+        return existing.switchIfEmpty(databaseClient.sql("INSERT INTO department (name) VALUES (:name)")
+                .bind("name", department)
+                .fetch()
+                .rowsUpdated()
+                // added concurrently by another request or instance
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just(0L))
+                .then(existing));
+    }
+
+    private static String where(EmployeeQuery query, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (!query.getDepartments().isEmpty()) {
+            // compared by key, as the JPA repository does
+            conditions.add("e.department_id IN (SELECT id FROM department WHERE name IN (:departments))");
+            parameters.put("departments", List.copyOf(query.getDepartments()));
+        }
+        if (query.getYearOfEmploymentAfter() != null) {
+            conditions.add("e.year_of_employment > :yearAfter");
+            parameters.put("yearAfter", query.getYearOfEmploymentAfter());
+        }
+        if (query.getYearOfEmploymentFrom() != null) {
+            conditions.add("e.year_of_employment >= :yearFrom");
+            parameters.put("yearFrom", query.getYearOfEmploymentFrom());
+        }
+        if (query.getYearOfEmploymentTo() != null) {
+            conditions.add("e.year_of_employment <= :yearTo");
+            parameters.put("yearTo", query.getYearOfEmploymentTo());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Map<String, Object> parameters) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    private Employee toEmployee(Readable row) {
+        return new Employee(row.get("id", Long.class), row.get("name", String.class), row.get("department", String.class),
+                row.get("year_of_employment", LocalDate.class));
+    }
+
+    private static Employee select(Employee employee, EmployeeQuery query) {
+        if (query.getFields().size() == EmployeeField.ALL.size()) {
+            return employee;
+        }
+        Employee selected = new Employee();
+        for (EmployeeField field : query.getFields()) {
+            switch (field) {
+                case ID -> selected.setId(employee.getId());
+                case NAME -> selected.setName(employee.getName());
+                case DEPARTMENT -> selected.setDepartment(employee.getDepartment());
+                case YEAR_OF_EMPLOYMENT -> selected.setYearOfEmployment(employee.getYearOfEmployment());
+            }
+        }
+        return selected;
+    }
+}
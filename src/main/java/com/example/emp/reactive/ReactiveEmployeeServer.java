@@ -0,0 +1,92 @@
+package com.example.emp.reactive;
+
+import com.example.emp.business.repository.shard.EmployeeShards;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Runs the reactive employee API on its own Netty port next to the servlet container. It is started
+ * with the servlet web server, so tests without a real server do not open a second port. The reactive
+ * beans live in a child context, the servlet application never sees them.
+ */
+@Log4j2
+@Component
+public class ReactiveEmployeeServer {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Value("${emp.reactive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${emp.reactive.port:8081}")
+    private int port = 8081;
+
+    private AnnotationConfigApplicationContext reactiveContext;
+
+    private DisposableServer server;
+
+    // the R2DBC pool reads and writes the single spring.r2dbc database, it knows nothing of the shards
+    @PostConstruct
+    public void checkSharding() {
+        if (enabled && employeeShards.isSharded()) {
+            throw new IllegalStateException("The reactive API does not support sharding, set emp.reactive.enabled=false");
+        }
+    }
+
+    @EventListener
+    public synchronized void start(ServletWebServerInitializedEvent event) {
+        if (!enabled || server != null || event.getApplicationContext() != applicationContext) {
+            return;
+        }
+        reactiveContext = new AnnotationConfigApplicationContext();
+        reactiveContext.setParent(applicationContext);
+        reactiveContext.register(ReactiveWebConfig.class);
+        reactiveContext.refresh();
+
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(reactiveContext.getBean(RouterFunction.class),
+                reactiveContext.getBean(HandlerStrategies.class));
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive employee API started on port {}", server.port());
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+        if (reactiveContext != null) {
+            reactiveContext.close();
+            reactiveContext = null;
+        }
+    }
+
+    /**
+     * The bound port, or -1 while the server is not running.
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.port();
+    }
+}
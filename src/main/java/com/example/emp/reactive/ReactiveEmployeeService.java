@@ -0,0 +1,78 @@
+package com.example.emp.reactive;
+
+import com.example.emp.business.events.EmployeeEventHub;
+import com.example.emp.business.events.EmployeeEventType;
+import com.example.emp.business.export.ExportCache;
+import com.example.emp.business.handlers.EmployeeNotFoundException;
+import com.example.emp.business.repository.EmployeeIdFilter;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeQuery;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The employee operations of {@code EmployeeService} for the reactive API. Writes invalidate the
+ * export cache and publish change events exactly like writes through the servlet API. A bean of the
+ * reactive child context only, see {@link ReactiveWebConfig}.
+ */
+@Log4j2
+public class ReactiveEmployeeService {
+
+    @Autowired
+    private ReactiveEmployeeRepository reactiveEmployeeRepository;
+
+    @Autowired
+    private ExportCache exportCache;
+
+    @Autowired
+    private EmployeeEventHub employeeEventHub;
+
+    @Autowired
+    private EmployeeIdFilter employeeIdFilter;
+
+    public Flux<Employee> getEmployees(EmployeeQuery query) {
+        return reactiveEmployeeRepository.findEmployees(query);
+    }
+
+    public Mono<Boolean> existsEmployees(EmployeeQuery query) {
+        return reactiveEmployeeRepository.existsEmployees(query);
+    }
+
+    public Mono<Employee> getEmployeeById(Long id) {
+        Mono<Employee> employee = employeeIdFilter.mightContain(id) ? reactiveEmployeeRepository.findById(id) : Mono.empty();
+        return employee
+                .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Employee is not found or has left the organization.")));
+    }
+
+    public Mono<Employee> addEmployee(Employee employee) {
+        return reactiveEmployeeRepository.insert(employee)
+                .doOnNext(savedEmployee -> {
+                    employeeIdFilter.add(savedEmployee.getId());
+                    exportCache.invalidate(savedEmployee.getDepartment());
+                    employeeEventHub.publish(EmployeeEventType.CREATED, savedEmployee);
+                });
+    }
+
+    /**
+     * Moves the employee to the archive. Emits {@code false} if there is no current employee with this id.
+     */
+    public Mono<Boolean> deleteEmployee(Long id) {
+        if (!employeeIdFilter.mightContain(id)) {
+            return Mono.just(false);
+        }
+        return reactiveEmployeeRepository.findById(id)
+                .flatMap(employee -> reactiveEmployeeRepository.archive(id)
+                        .filter(archived -> archived > 0)
+                        .doOnNext(archived -> {
+                            log.info("Employee with id {} is deleted", id);
+                            employeeIdFilter.removeAll(List.of(id));
+                            exportCache.invalidate(employee.getDepartment());
+                            employeeEventHub.publish(EmployeeEventType.DELETED, employee);
+                        }))
+                .hasElement();
+    }
+}
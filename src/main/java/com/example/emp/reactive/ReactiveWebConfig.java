@@ -0,0 +1,94 @@
+package com.example.emp.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+
+/**
+ * Configuration of the child context started by {@link ReactiveEmployeeServer}. Deliberately not a
+ * {@code @Configuration}, so the component scan of the servlet application does not pick it up, and
+ * without {@code @EnableWebFlux}, which refuses to start next to the MVC configuration of the parent:
+ * the routes are served directly with {@link #handlerStrategies()}. The export cache, events,
+ * validator and JSON mapper come from the parent context. The R2DBC connection pool, repository and
+ * service are created here, so the servlet application never has a {@code ConnectionFactory}
+ * (R2dbcAutoConfiguration is excluded) and runs without them when the reactive API is disabled.
+ */
+class ReactiveWebConfig {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Bean
+    HandlerStrategies handlerStrategies() {
+        return HandlerStrategies.builder().codecs(this::configureHttpMessageCodecs).build();
+    }
+
+    void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+        configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionPool connectionFactory(Environment environment) {
+        R2dbcProperties properties = Binder.get(environment).bind("spring.r2dbc", R2dbcProperties.class)
+                .orElseGet(R2dbcProperties::new);
+        ConnectionFactoryBuilder builder = ConnectionFactoryBuilder.withUrl(properties.getUrl());
+        if (StringUtils.hasText(properties.getUsername())) {
+            builder.username(properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            builder.password(properties.getPassword());
+        }
+        R2dbcProperties.Pool pool = properties.getPool();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(builder.build())
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build());
+    }
+
+    @Bean
+    ReactiveEmployeeRepository reactiveEmployeeRepository() {
+        return new ReactiveEmployeeRepository();
+    }
+
+    @Bean
+    ReactiveEmployeeService reactiveEmployeeService() {
+        return new ReactiveEmployeeService();
+    }
+
+    @Bean
+    ReactiveEmployeeHandler reactiveEmployeeHandler(ReactiveEmployeeService reactiveEmployeeService, Validator validator) {
+        return new ReactiveEmployeeHandler(reactiveEmployeeService, validator);
+    }
+
+    @Bean
+    RouterFunction<ServerResponse> employeeRoutes(ReactiveEmployeeHandler handler) {
+        return RouterFunctions.route()
+                .path("/employees", builder -> builder
+                        .GET("", handler::getEmployees)
+                        .GET("/export", handler::exportEmployees)
+                        .GET("/{id:-?\\d+}", handler::getEmployeeById)
+                        .POST("", contentType(MediaType.APPLICATION_JSON), handler::createEmployee)
+                        .DELETE("/{id:-?\\d+}", handler::deleteEmployee))
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.emp.seed;
+
+import com.example.emp.business.repository.model.EmployeeDAO;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic employees. Every chunk has its own random stream derived from the seed
+ * and the chunk index, so a dataset is reproducible no matter how many workers produce it or
+ * in which order the chunks are generated. Department sizes follow a Zipf distribution and
+ * hire dates lean towards recent years, as in a growing organization.
+ */
+public class EmployeeDataGenerator {
+
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Jack", "Anna", "Saul", "Maria", "Peter", "Laura",
+            "Oliver", "Emma", "Liam", "Sofia", "Noah", "Mia", "Lucas", "Ella", "Mark", "Eva", "Adam", "Linda"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Berg", "Goodman", "Ozols", "Kalnins", "Brown",
+            "Miller", "Wilson", "Taylor", "Clark", "Lewis", "Walker", "Young", "King", "Wright", "Hill", "Green"};
+    private static final String[] DEPARTMENTS = {"Engineering", "Sales", "Operations", "Customer Support", "Digital",
+            "Finance", "HR", "Marketing", "Logistics", "Procurement", "Legal", "Research", "Quality", "Security",
+            "Facilities", "Training", "Compliance", "Data", "Design", "Internal Audit"};
+    private static final double ZIPF_EXPONENT = 1.1;
+
+    private final long seed;
+    private final LocalDate firstHireDate;
+    private final long hireDateRangeDays;
+    private final double[] departmentCumulativeWeights;
+
+    public EmployeeDataGenerator(long seed, LocalDate firstHireDate, LocalDate lastHireDate) {
+        this.seed = seed;
+        this.firstHireDate = firstHireDate;
+        this.hireDateRangeDays = ChronoUnit.DAYS.between(firstHireDate, lastHireDate) + 1;
+        this.departmentCumulativeWeights = new double[DEPARTMENTS.length];
+        double total = 0;
+        for (int rank = 0; rank < DEPARTMENTS.length; rank++) {
+            total += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            departmentCumulativeWeights[rank] = total;
+        }
+        for (int rank = 0; rank < DEPARTMENTS.length; rank++) {
+            departmentCumulativeWeights[rank] /= total;
+        }
+    }
+
+    public List<EmployeeDAO> generateChunk(long chunkIndex, int chunkSize) {
+        SplittableRandom random = new SplittableRandom(mix(seed + 0x9E3779B97F4A7C15L * (chunkIndex + 1)));
+        List<EmployeeDAO> employees = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            employees.add(new EmployeeDAO(null, name, nextDepartment(random), nextHireDate(random)));
+        }
+        return employees;
+    }
+
+    private String nextDepartment(SplittableRandom random) {
+        int index = Arrays.binarySearch(departmentCumulativeWeights, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return DEPARTMENTS[Math.min(rank, DEPARTMENTS.length - 1)];
+    }
+
+    private LocalDate nextHireDate(SplittableRandom random) {
+        // square root of a uniform value has a linearly increasing density: recent years get more hires
+        double position = Math.sqrt(random.nextDouble());
+        return firstHireDate.plusDays((long) (position * hireDateRangeDays) % hireDateRangeDays);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.emp.seed;
+
+import com.example.emp.business.repository.DepartmentDictionary;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.shard.EmployeeShards;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loads synthetic employees for benchmarks: {@code --spring.profiles.active=seed --emp.seed.rows=20000000}.
+ * Workers take chunks from a shared counter, generate them with {@link EmployeeDataGenerator} and
+ * insert each chunk as one JDBC batch (array-bound parameters, one round trip and one commit per chunk).
+ */
+@Log4j2
+@Component
+@Profile("seed")
+public class EmployeeDataSeeder implements ApplicationRunner {
+
+    private static final String INSERT_SQL = "INSERT INTO employee (name, department_id, year_of_employment) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${emp.seed.rows:1000000}")
+    private long rows;
+
+    @Value("${emp.seed.workers:8}")
+    private int workers;
+
+    @Value("${emp.seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${emp.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${emp.seed.first-hire-date:1995-01-01}")
+    private String firstHireDate;
+
+    // fixed, so a dataset does not depend on the day it is seeded
+    @Value("${emp.seed.last-hire-date:2024-12-31}")
+    private String lastHireDate;
+
+    @Value("${emp.seed.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        EmployeeDataGenerator generator = new EmployeeDataGenerator(randomSeed, LocalDate.parse(firstHireDate), LocalDate.parse(lastHireDate));
+        long chunks = (rows + batchSize - 1) / batchSize;
+        AtomicLong nextChunk = new AtomicLong();
+        AtomicLong inserted = new AtomicLong();
+        long startedAt = System.nanoTime();
+        log.info("Seeding {} employees with {} workers in batches of {} (seed {})", rows, workers, batchSize, randomSeed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int worker = 0; worker < workers; worker++) {
+                results.add(executor.submit(() -> {
+                    long chunk;
+                    while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                        int size = (int) Math.min(batchSize, rows - chunk * batchSize);
+                        insert(generator.generateChunk(chunk, size));
+                        logProgress(inserted.addAndGet(size), startedAt);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double minutes = (System.nanoTime() - startedAt) / 6e10;
+        log.info("Seeded {} employees in {} s ({} rows/min)", inserted.get(), String.format("%.1f", minutes * 60),
+                Math.round(inserted.get() / minutes));
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    // one batch per shard, every employee goes to the shard of its department; new departments are added before the batch
+    private void insert(List<EmployeeDAO> employees) {
+        Map<String, Integer> departmentIds = employees.stream()
+                .map(EmployeeDAO::getDepartment)
+                .distinct()
+                .collect(Collectors.toMap(department -> department, departmentDictionary::register));
+        Map<Integer, List<EmployeeDAO>> employeesByShard = employees.stream()
+                .collect(Collectors.groupingBy(employee -> employeeShards.shardOf(employee.getDepartment())));
+        employeesByShard.forEach((shard, shardEmployees) -> employeeShards.runOnShard(shard, () ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, shardEmployees, shardEmployees.size(), (statement, employee) -> {
+                    statement.setString(1, employee.getName());
+                    statement.setInt(2, departmentIds.get(employee.getDepartment()));
+                    statement.setDate(3, Date.valueOf(employee.getYearOfEmployment()));
+                })));
+    }
+
+    private void logProgress(long inserted, long startedAt) {
+        long previous = inserted - batchSize;
+        long step = Math.max(rows / 20, batchSize);
+        if (previous / step != inserted / step) {
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            log.info("Seeded {} of {} employees ({} rows/min)", inserted, rows, elapsedMs == 0 ? 0 : inserted * 60000 / elapsedMs);
+        }
+    }
+}
@@ -14,4 +14,6 @@ public class HTMLResponseMessages {
             "been found";
     public static final String HTTP_500 = "Unsuccessful request responds with this code. Internal server error. " +
             "Check the response headers for information";
+    public static final String HTTP_503 = "Unsuccessful request responds with this code. The service is busy - " +
+            "retry after the number of seconds given in the Retry-After header";
 }
@@ -0,0 +1,223 @@
+package com.example.emp.warmup;
+
+import com.example.emp.business.repository.EmployeeIdFilter;
+import com.example.emp.business.repository.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Runs before the instance reports ready: runners complete before Spring Boot publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC}, so {@code /actuator/health/readiness} stays down until
+ * the warm-up is done. It opens the connection pools, loads the {@link EmployeeIdFilter} and replays
+ * read requests against the local server until the list, mapping and export paths are compiled.
+ * Requests come from {@code emp.warm-up.recording} (the load test format) or {@link #SYNTHETIC_REQUESTS};
+ * only GET and HEAD are replayed. The warm-up never fails the startup, it only logs what went wrong.
+ */
+@Log4j2
+@Component
+public class EmployeeWarmUp implements ApplicationRunner {
+
+    static final List<String> SYNTHETIC_REQUESTS = List.of(
+            "GET /employees?limit=100",
+            "GET /employees?sort=name,-yearOfEmployment&limit=100",
+            "GET /employees?fields=id,name&limit=100",
+            "HEAD /employees",
+            "GET /employees/count",
+            "GET /employees/{id}",
+            "GET /employees/export?format=csv&limit=1000",
+            "GET /employees/export?format=xlsx&limit=100");
+
+    private static final String FIRST_ID_SQL = "SELECT MIN(id) FROM employee";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Autowired
+    private EmployeeIdFilter employeeIdFilter;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${emp.warm-up.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${emp.warm-up.connections:10}")
+    private int connections = 10;
+
+    @Value("${emp.warm-up.iterations:100}")
+    private int iterations = 100;
+
+    @Value("${emp.warm-up.max-duration-seconds:60}")
+    private long maxDurationSeconds = 60;
+
+    @Value("${emp.warm-up.recording:}")
+    private String recording = "";
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.SECONDS.toNanos(maxDurationSeconds);
+        log.info("Warming up before reporting ready (at most {} s)", maxDurationSeconds);
+
+        openConnections();
+        if (employeeIdFilter.isEnabled()) {
+            employeeIdFilter.load();
+        }
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port != null && port > 0) {
+            replay(requests(), "http://localhost:" + port + environment.getProperty("server.servlet.context-path", ""), deadline);
+        }
+
+        log.info("Warm-up done in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Holds {@code emp.warm-up.connections} connections of every pool at once, so they are all
+     * established before the first request instead of during it.
+     */
+    private void openConnections() {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        List<DataSource> pools = shards == null ? List.of(dataSource)
+                : IntStream.range(0, shards.getShardCount()).mapToObj(shards::getShard).toList();
+        for (DataSource pool : pools) {
+            int count = connections;
+            List<Connection> opened = new ArrayList<>();
+            try {
+                if (pool.isWrapperFor(HikariDataSource.class)) {
+                    count = Math.min(count, pool.unwrap(HikariDataSource.class).getMaximumPoolSize());
+                }
+                while (opened.size() < count) {
+                    Connection connection = pool.getConnection();
+                    opened.add(connection);
+                    connection.isValid(5);
+                }
+            } catch (SQLException e) {
+                log.warn("Opened {} of {} connections during warm-up: {}", opened.size(), count, e.getMessage());
+            } finally {
+                opened.forEach(EmployeeWarmUp::closeQuietly);
+            }
+        }
+    }
+
+    private List<WarmUpRequest> requests() throws IOException {
+        List<String> lines = StringUtils.hasText(recording) ? Files.readAllLines(Path.of(recording)) : SYNTHETIC_REQUESTS;
+        Long firstId;
+        try {
+            firstId = new JdbcTemplate(dataSource).queryForObject(FIRST_ID_SQL, Long.class);
+        } catch (RuntimeException e) {
+            log.warn("Reading an employee id for the warm-up failed: {}", e.getMessage());
+            firstId = null;
+        }
+        return parse(lines, firstId);
+    }
+
+    /**
+     * Lines in the load test recording format, {@code METHOD /path?query [TAB body]}. Writes are
+     * skipped, as are {@code {id}} paths when there is no employee to put in.
+     */
+    static List<WarmUpRequest> parse(List<String> lines, Long id) {
+        List<WarmUpRequest> requests = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] methodAndPath = line.split("\t", 2)[0].trim().split(" ", 2);
+            String method = methodAndPath[0].toUpperCase();
+            if (methodAndPath.length < 2 || !List.of("GET", "HEAD").contains(method)) {
+                log.debug("Not replaying {} during warm-up", line);
+                continue;
+            }
+            String path = methodAndPath[1].trim();
+            if (path.contains("{id}")) {
+                if (id == null) {
+                    continue;
+                }
+                path = path.replace("{id}", String.valueOf(id));
+            }
+            requests.add(new WarmUpRequest(method, path));
+        }
+        return requests;
+    }
+
+    private void replay(List<WarmUpRequest> requests, String baseUrl, long deadline) throws InterruptedException {
+        if (requests.isEmpty()) {
+            return;
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        int sent = 0;
+        int failed = 0;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (WarmUpRequest request : requests) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    log.warn("Warm-up stopped after {} of {} iterations, emp.warm-up.max-duration-seconds reached",
+                            iteration, iterations);
+                    return;
+                }
+                try {
+                    // no-cache renders every export instead of serving the first one from the export cache
+                    HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + request.path()))
+                            .method(request.method(), HttpRequest.BodyPublishers.noBody())
+                            .header(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue())
+                            .timeout(Duration.ofNanos(remainingNanos))
+                            .build();
+                    HttpResponse<Void> response = client.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 500) {
+                        failed++;
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    log.debug("Warm-up request {} {} failed: {}", request.method(), request.path(), e.getMessage());
+                    failed++;
+                }
+                sent++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("{} of {} warm-up requests failed", failed, sent);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Closing a warm-up connection failed", e);
+        }
+    }
+
+    record WarmUpRequest(String method, String path) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.emp.web.admin;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Java Flight Recorder on demand at {@code /actuator/jfr}. Recordings are bounded in duration and size
+ * and only one runs at a time, so profiling a production instance costs a few percent of CPU at most.
+ * Events that would copy system properties, environment variables or command lines are left out:
+ * <ul>
+ *     <li>{@code POST /actuator/jfr} with optional {@code durationSeconds} and {@code settings} starts one</li>
+ *     <li>{@code POST /actuator/jfr/{id}} stops it before its duration is over</li>
+ *     <li>{@code GET /actuator/jfr/{id}} returns the recording, what was recorded so far if it still runs</li>
+ *     <li>{@code DELETE /actuator/jfr/{id}} discards it</li>
+ * </ul>
+ */
+@Log4j2
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    // system properties, environment variables and command lines carry passwords and tokens
+    private static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialSystemProperty", "jdk.InitialEnvironmentVariable",
+            "jdk.JVMInformation", "jdk.SystemProcess");
+
+    private final Map<Long, Recording> recordings = new LinkedHashMap<>();
+
+    @Value("${emp.jfr.directory:${java.io.tmpdir}/emp-jfr}")
+    private String directoryName = System.getProperty("java.io.tmpdir") + "/emp-jfr";
+
+    @Value("${emp.jfr.default-duration-seconds:60}")
+    private long defaultDurationSeconds = 60;
+
+    @Value("${emp.jfr.max-duration-seconds:300}")
+    private long maxDurationSeconds = 300;
+
+    @Value("${emp.jfr.max-size:100MB}")
+    private DataSize maxSize = DataSize.ofMegabytes(100);
+
+    @Value("${emp.jfr.max-recordings:3}")
+    private int maxRecordings = 3;
+
+    @ReadOperation
+    public synchronized List<Map<String, Object>> recordings() {
+        return recordings.values().stream().map(this::describe).collect(Collectors.toList());
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Object> start(@Nullable Long durationSeconds, @Nullable String settings) {
+        long duration = durationSeconds == null ? defaultDurationSeconds : durationSeconds;
+        if (duration <= 0 || duration > maxDurationSeconds) {
+            return new WebEndpointResponse<>("durationSeconds must be between 1 and " + maxDurationSeconds,
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        String configurationName = settings == null ? "default" : settings;
+        if (!SETTINGS.contains(configurationName)) {
+            return new WebEndpointResponse<>("settings must be one of " + SETTINGS, WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (recordings.values().stream().anyMatch(recording -> recording.getState() == RecordingState.RUNNING)) {
+            return new WebEndpointResponse<>("A recording is already running", HttpStatus.CONFLICT.value());
+        }
+        discardOldest();
+
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(configurationName));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR settings " + configurationName + " can not be read", e);
+        }
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.setName("emp-" + recording.getId());
+        recording.setDuration(Duration.ofSeconds(duration));
+        recording.setMaxSize(maxSize.toBytes());
+        recording.setToDisk(true);
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        log.info("Started JFR recording {} with {} settings for {} s", recording.getId(), configurationName, duration);
+        return new WebEndpointResponse<>(describe(recording), WebEndpointResponse.STATUS_OK);
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Object> stop(@Selector long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Stopped JFR recording {}", id);
+        }
+        return new WebEndpointResponse<>(describe(recording), WebEndpointResponse.STATUS_OK);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> recording(@Selector long id) throws IOException {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = file(id);
+        Files.createDirectories(file.getParent());
+        recording.dump(file);
+        return new WebEndpointResponse<>(new FileSystemResource(file), WebEndpointResponse.STATUS_OK);
+    }
+
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Void> discard(@Selector long id) throws IOException {
+        Recording recording = recordings.remove(id);
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        close(recording);
+        return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NO_CONTENT);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        recordings.values().forEach(this::close);
+        recordings.clear();
+    }
+
+    private void discardOldest() {
+        while (recordings.size() >= maxRecordings) {
+            Long oldest = recordings.keySet().iterator().next();
+            close(recordings.remove(oldest));
+        }
+    }
+
+    private void close(Recording recording) {
+        recording.close();
+        try {
+            Files.deleteIfExists(file(recording.getId()));
+        } catch (IOException e) {
+            log.warn("Could not delete the file of JFR recording {}: {}", recording.getId(), e.getMessage());
+        }
+    }
+
+    private Path file(long id) {
+        return Paths.get(directoryName, "emp-" + id + ".jfr");
+    }
+
+    private Map<String, Object> describe(Recording recording) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", recording.getId());
+        description.put("state", recording.getState());
+        description.put("startTime", recording.getStartTime());
+        description.put("duration", recording.getDuration());
+        description.put("size", recording.getSize());
+        return description;
+    }
+}
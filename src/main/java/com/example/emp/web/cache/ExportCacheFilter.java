@@ -0,0 +1,235 @@
+package com.example.emp.web.cache;
+
+import com.example.emp.business.export.ExportCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Serves {@code GET /employees/export} from the {@link ExportCache}. A miss runs the export into
+ * a file, publishes it and sends it; a hit never reaches the controller. Files are sent with the
+ * container's sendfile support when it has one, otherwise with {@link FileChannel#transferTo}.
+ * {@code Cache-Control: no-cache} skips the lookup and renders the export again.
+ */
+@Log4j2
+@Component
+public class ExportCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_HEADER = "X-Export-Cache";
+
+    private static final String EXPORT_PATH = "/employees/export";
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ExportCache exportCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !exportCache.isEnabled()
+                || !"GET".equals(request.getMethod())
+                || !EXPORT_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String cacheKey = cacheKey(request);
+        Set<String> departments = departments(request);
+
+        Optional<ExportCache.Entry> cached = isNoCache(request) ? Optional.empty() : exportCache.lookup(cacheKey, departments);
+        if (cached.isPresent()) {
+            ExportCache.Entry entry = cached.get();
+            response.setContentType(entry.contentType());
+            if (entry.contentDisposition() != null) {
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, entry.contentDisposition());
+            }
+            response.setHeader(CACHE_HEADER, "HIT");
+            log.debug("Serving export {} from cache", entry.id());
+            serve(entry, request, response);
+            return;
+        }
+
+        // read before rendering: a write that lands while rendering keeps the result out of the cache
+        long version = exportCache.version(departments);
+        Path renderedFile = exportCache.createTempFile();
+        try {
+            FileCapturingResponse capturingResponse = new FileCapturingResponse(response, renderedFile);
+            try {
+                response.setHeader(CACHE_HEADER, "MISS");
+                chain.doFilter(request, capturingResponse);
+                if (request.isAsyncStarted()) {
+                    // the rest of the body is written after the filter returns, it is not cached
+                    capturingResponse.passThrough();
+                    return;
+                }
+            } finally {
+                capturingResponse.finish();
+            }
+
+            if (response.getStatus() != HttpServletResponse.SC_OK) {
+                if (!response.isCommitted() && Files.size(renderedFile) > 0) {
+                    copy(renderedFile, 0, Files.size(renderedFile), response);
+                }
+                return;
+            }
+            Optional<ExportCache.Entry> stored = exportCache.store(cacheKey, departments, version, renderedFile,
+                    response.getContentType(), response.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+            if (stored.isPresent()) {
+                serve(stored.get(), request, response);
+            } else {
+                copy(renderedFile, 0, Files.size(renderedFile), response);
+            }
+        } finally {
+            exportCache.discard(renderedFile);
+        }
+    }
+
+    /**
+     * Sends a cached export, honouring {@code If-None-Match} and a single byte range, so an interrupted
+     * download resumes from the file instead of rendering the export again.
+     */
+    private void serve(ExportCache.Entry entry, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(entry.etag()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = entry.size();
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.equals(entry.etag()))) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendFile(entry.file(), 0, size, request, response);
+            return;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            ranges = List.of();
+        }
+        if (ranges.size() > 1) {
+            // multipart/byteranges is not worth it for downloads, a full response is allowed instead
+            response.setStatus(HttpServletResponse.SC_OK);
+            sendFile(entry.file(), 0, size, request, response);
+            return;
+        }
+
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(size);
+            end = ranges.get(0).getRangeEnd(size);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            start = -1;
+            end = -1;
+        }
+        // getRangeStart does not check the start against the length
+        if (start < 0 || start >= size || end < start) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.setContentLength(0);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        sendFile(entry.file(), start, end + 1 - start, request, response);
+    }
+
+    private void sendFile(Path file, long position, long length, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // the container sends the file after the request returns, straight from the page cache
+            response.setContentLengthLong(length);
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + length);
+            return;
+        }
+        copy(file, position, length, response);
+    }
+
+    private void copy(Path file, long position, long length, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long end = position + length;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, output);
+            }
+        }
+        response.flushBuffer();
+    }
+
+    private static boolean isNoCache(HttpServletRequest request) {
+        String cacheControl = request.getHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl != null && cacheControl.toLowerCase().contains("no-cache");
+    }
+
+    static String cacheKey(HttpServletRequest request) {
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        return EXPORT_PATH + "?" + parameters.entrySet().stream()
+                .flatMap(parameter -> Arrays.stream(parameter.getValue())
+                        .map(value -> encode(parameter.getKey()) + "=" + encode(value)))
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Every department the export may contain. A single value may also be a comma separated list, as
+     * for the controller; taking both readings over-approximates, which only invalidates more often.
+     */
+    static Set<String> departments(HttpServletRequest request) {
+        String[] values = request.getParameterValues("department");
+        if (values == null) {
+            return Set.of();
+        }
+        Set<String> departments = new HashSet<>();
+        for (String value : values) {
+            departments.add(value);
+            for (String department : StringUtils.commaDelimitedListToStringArray(value)) {
+                departments.add(department.trim());
+            }
+        }
+        departments.removeIf(String::isBlank);
+        return departments;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.emp.web.cache;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lets headers and status through to the wrapped response but writes the body into a file, so
+ * the body can be cached before it is sent. A body that is still written after the filter returns,
+ * as by an asynchronous request, is let through instead, see {@link #passThrough()}.
+ */
+class FileCapturingResponse extends HttpServletResponseWrapper {
+
+    private final Path path;
+
+    private final OutputStream file;
+
+    private final Body body = new Body();
+
+    private boolean outputStreamUsed;
+
+    private PrintWriter writer;
+
+    // guarded by body
+    private boolean passingThrough;
+
+    FileCapturingResponse(HttpServletResponse response, Path path) throws IOException {
+        super(response);
+        this.path = path;
+        this.file = new BufferedOutputStream(Files.newOutputStream(path));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response");
+        }
+        outputStreamUsed = true;
+        return body;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (outputStreamUsed) {
+            throw new IllegalStateException("getOutputStream() has already been called on this response");
+        }
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(body, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    // the length is only known once the body is complete, the filter sets it
+    @Override
+    public void setContentLength(int len) {
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        body.flush();
+    }
+
+    /**
+     * Stops capturing: sends the body captured so far and writes the rest straight to the wrapped
+     * response. The captured file is then incomplete and must not be cached.
+     */
+    void passThrough() throws IOException {
+        // outside the lock, a writer flushes into the body while holding its own lock
+        if (writer != null) {
+            writer.flush();
+        }
+        synchronized (body) {
+            if (passingThrough) {
+                return;
+            }
+            file.close();
+            Files.copy(path, getResponse().getOutputStream());
+            passingThrough = true;
+        }
+    }
+
+    boolean isPassingThrough() {
+        synchronized (body) {
+            return passingThrough;
+        }
+    }
+
+    void finish() throws IOException {
+        if (isPassingThrough()) {
+            return;
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+        file.close();
+    }
+
+    private class Body extends ServletOutputStream {
+
+        @Override
+        public boolean isReady() {
+            return !isPassingThrough() || passThroughStream().isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                passThrough();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            passThroughStream().setWriteListener(writeListener);
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            target().flush();
+        }
+
+        // closing a capture only flushes it, the filter closes the file once the chain returns
+        @Override
+        public synchronized void close() throws IOException {
+            if (passingThrough) {
+                passThroughStream().close();
+            } else {
+                file.flush();
+            }
+        }
+
+        private OutputStream target() throws IOException {
+            return passingThrough ? getResponse().getOutputStream() : file;
+        }
+
+        private ServletOutputStream passThroughStream() {
+            try {
+                return getResponse().getOutputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.emp.web.controller;
 
+import com.example.emp.business.events.EmployeeEventHub;
 import com.example.emp.business.service.EmployeeService;
 import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeQuery;
 import com.example.emp.swagger.HTMLResponseMessages;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -13,10 +15,12 @@ import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -24,6 +28,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 import java.time.LocalDate;
@@ -37,28 +43,148 @@ import java.util.stream.Collectors;
 @RequestMapping("/employees")
 public class EmployeeController {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeEventHub employeeEventHub;
+
     @GetMapping
     @ApiOperation(value = "Get a list of employees",
+            notes = "Returns JSON by default, or Smile (application/x-jackson-smile) and CBOR (application/cbor) " +
+                    "when requested in the Accept header",
             response = Employee.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
-            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500),
+            @ApiResponse(code = 503, message = HTMLResponseMessages.HTTP_503)})
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<Employee>> getEmployees(
-            @ApiParam(value = "Department name to filter employees by") @RequestParam(required = false) String department,
-            @ApiParam(value = "Year of hiring to filter employees by") @RequestParam(required = false)  LocalDate year) {
+    public ResponseEntity<?> getEmployees(
+            @ApiParam(value = "Department names to filter employees by, repeated or comma separated") @RequestParam(required = false) List<String> department,
+            @ApiParam(value = "Year of hiring to filter employees by") @RequestParam(required = false)  LocalDate year,
+            @ApiParam(value = "Earliest hiring date, inclusive") @RequestParam(required = false) LocalDate yearFrom,
+            @ApiParam(value = "Latest hiring date, inclusive") @RequestParam(required = false) LocalDate yearTo,
+            @ApiParam(value = "Comma separated fields to return, e.g. 'id,name'. All fields by default") @RequestParam(required = false) String fields,
+            @ApiParam(value = "Comma separated sort fields (name, department, yearOfEmployment), '-' prefix for descending, e.g. '-yearOfEmployment'") @RequestParam(required = false) String sort,
+            @ApiParam(value = "Maximum number of employees to return") @RequestParam(required = false) Integer limit,
+            @ApiParam(value = "Also return employees who left the organization, after the current ones") @RequestParam(required = false, defaultValue = "false") boolean includeArchived) {
+
+        log.info("Retrieving a list of employees with department: {}, year: {}, yearFrom: {}, yearTo: {}, fields: {}, sort: {}, limit: {} and includeArchived: {}",
+                department, year, yearFrom, yearTo, fields, sort, limit, includeArchived);
+
+        if (includeArchived && (sort != null || limit != null)) {
+            log.warn("Received request with archived employees and sort or limit");
+            return ResponseEntity.badRequest().body("Archived employees can not be combined with sort or limit.");
+        }
 
-        log.info("Retrieving a list of employees with department: {} and year: {}", department, year);
+        EmployeeQuery query;
+        try {
+            query = EmployeeQuery.parse(department, year, yearFrom, yearTo, fields, sort, limit).toBuilder()
+                    .includeArchived(includeArchived)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.warn("Received request with invalid parameters: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
-        List<Employee> employeeList = employeeService.getEmployees(department, year);
+        List<Employee> employeeList = employeeService.getEmployees(query);
 
         log.debug("A list of employees is found. Size: {}", employeeList.size());
         return new ResponseEntity<>(employeeList, HttpStatus.OK);
     }
 
+    @RequestMapping(method = RequestMethod.HEAD)
+    @ApiOperation(value = "Count employees without fetching them",
+            notes = "Returns the number of employees matching the filters in the X-Total-Count header")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500),
+            @ApiResponse(code = 503, message = HTMLResponseMessages.HTTP_503)})
+    public ResponseEntity<?> headEmployees(
+            @ApiParam(value = "Department names to filter employees by, repeated or comma separated") @RequestParam(required = false) List<String> department,
+            @ApiParam(value = "Year of hiring to filter employees by") @RequestParam(required = false) LocalDate year,
+            @ApiParam(value = "Earliest hiring date, inclusive") @RequestParam(required = false) LocalDate yearFrom,
+            @ApiParam(value = "Latest hiring date, inclusive") @RequestParam(required = false) LocalDate yearTo) {
+
+        ResponseEntity<?> count = countEmployees(department, year, yearFrom, yearTo);
+        return ResponseEntity.status(count.getStatusCode()).headers(count.getHeaders()).build();
+    }
+
+    @GetMapping("/count")
+    @ApiOperation(value = "Count employees",
+            notes = "Returns the number of employees matching the filters, also in the X-Total-Count header",
+            response = Long.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500),
+            @ApiResponse(code = 503, message = HTMLResponseMessages.HTTP_503)})
+    public ResponseEntity<?> countEmployees(
+            @ApiParam(value = "Department names to filter employees by, repeated or comma separated") @RequestParam(required = false) List<String> department,
+            @ApiParam(value = "Year of hiring to filter employees by") @RequestParam(required = false) LocalDate year,
+            @ApiParam(value = "Earliest hiring date, inclusive") @RequestParam(required = false) LocalDate yearFrom,
+            @ApiParam(value = "Latest hiring date, inclusive") @RequestParam(required = false) LocalDate yearTo) {
+
+        log.info("Counting employees with department: {}, year: {}, yearFrom: {} and yearTo: {}", department, year, yearFrom, yearTo);
+
+        EmployeeQuery query;
+        try {
+            query = EmployeeQuery.parse(department, year, yearFrom, yearTo, null, null, null);
+        } catch (IllegalArgumentException e) {
+            log.warn("Received request with invalid parameters: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        long count = employeeService.countEmployees(query);
+        return ResponseEntity.ok().header(TOTAL_COUNT_HEADER, String.valueOf(count)).body(count);
+    }
+
+    @GetMapping("/{id}")
+    @ApiOperation(value = "Get the employee by id",
+            notes = "Returns JSON by default, or Smile (application/x-jackson-smile) and CBOR (application/cbor) " +
+                    "when requested in the Accept header",
+            response = Employee.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 404, message = HTMLResponseMessages.HTTP_404),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500),
+            @ApiResponse(code = 503, message = HTMLResponseMessages.HTTP_503)})
+    public ResponseEntity<?> getEmployeeById(@ApiParam(value = "The id of the employee", required = true)
+                                             @NonNull @PathVariable Long id,
+                                             @ApiParam(value = "Also look up employees who left the organization")
+                                             @RequestParam(required = false, defaultValue = "false") boolean includeArchived) {
+        log.info("Retrieving employee by ID, where ID is: {} and includeArchived: {}", id, includeArchived);
+
+        if (id <= 0) {
+            log.warn("Received request with invalid ID: {}", id);
+            return ResponseEntity.badRequest().body("ID must be a positive number, provide ID is: " + id);
+        }
+
+        Employee employee = employeeService.getEmployeeById(id, includeArchived);
+        log.debug("Employee is found: {}", employee);
+        return ResponseEntity.ok(employee);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Subscribe to employee changes",
+            notes = "Pushes employee create and delete events as Server-Sent Events. Reconnecting clients " +
+                    "resume after the event given in the Last-Event-ID header")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public SseEmitter streamEmployeeEvents(
+            @ApiParam(value = "Department name to filter events by") @RequestParam(required = false) String department,
+            @ApiParam(value = "Id of the last received event") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+
+        log.info("Subscribing to employee events with department: {} and last event id: {}", department, lastEventId);
+        return employeeEventHub.subscribe(department, lastEventId);
+    }
+
     @PostMapping
     @ApiOperation(value = "Saves the employee in the database",
             notes = "If provided employee is valid, saves it",
@@ -88,9 +214,35 @@ public class EmployeeController {
         return new ResponseEntity<>(savedEmployee, HttpStatus.CREATED);
     }
 
+    @PostMapping("/archive")
+    @ApiOperation(value = "Moves leavers to the archive",
+            notes = "Moves the employees with the given ids to the archive in one transaction and returns how many were moved. " +
+                    "Unknown ids are ignored",
+            response = Integer.class)
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = HTMLResponseMessages.HTTP_200),
+            @ApiResponse(code = 400, message = HTMLResponseMessages.HTTP_400),
+            @ApiResponse(code = 500, message = HTMLResponseMessages.HTTP_500)})
+    public ResponseEntity<?> archiveEmployees(@ApiParam(value = "The ids of the leavers", required = true)
+                                              @RequestBody List<Long> ids) {
+        log.info("Archiving {} employees", ids == null ? 0 : ids.size());
+
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one ID must be provided");
+        }
+        if (ids.stream().anyMatch(id -> id == null || id <= 0)) {
+            log.warn("Received archive request with invalid IDs");
+            return ResponseEntity.badRequest().body("IDs must be positive numbers");
+        }
+
+        int archived = employeeService.archiveEmployees(ids);
+        log.debug("{} employees are archived", archived);
+        return ResponseEntity.ok(archived);
+    }
+
     @DeleteMapping("/{id}")
     @ApiOperation(value = "Deletes the employee by id",
-            notes = "Deletes the employee if provided id exists",
+            notes = "Moves the employee to the archive if provided id exists",
             response = Employee.class)
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = HTMLResponseMessages.HTTP_204_WITHOUT_DATA),
@@ -124,11 +276,19 @@ public class EmployeeController {
             @ApiResponse(code = 200, message = "Export successful"),
             @ApiResponse(code = 400, message = "Invalid format or other bad request"),
             @ApiResponse(code = 204, message = "No employees found for the given criteria"),
-            @ApiResponse(code = 500, message = "Internal server error")})
+            @ApiResponse(code = 500, message = "Internal server error"),
+            @ApiResponse(code = 503, message = HTMLResponseMessages.HTTP_503)})
     public ResponseEntity<?> exportEmployees(
-            @ApiParam(value = "Department name to filter employees by") @RequestParam(required = false) String department,
+            @ApiParam(value = "Department names to filter employees by, repeated or comma separated") @RequestParam(required = false) List<String> department,
             @ApiParam(value = "Year of hiring to filter employees by") @RequestParam(required = false) LocalDate yearAfter,
+            @ApiParam(value = "Earliest hiring date, inclusive") @RequestParam(required = false) LocalDate yearFrom,
+            @ApiParam(value = "Latest hiring date, inclusive") @RequestParam(required = false) LocalDate yearTo,
             @ApiParam(value = "File format for export. Can be 'csv' or 'xlsx'") @RequestParam(required = false, defaultValue = "csv") String format,
+            @ApiParam(value = "Comma separated columns to export, e.g. 'id,name'. All columns by default") @RequestParam(required = false) String fields,
+            @ApiParam(value = "Comma separated sort fields (name, department, yearOfEmployment), '-' prefix for descending, e.g. '-yearOfEmployment'") @RequestParam(required = false) String sort,
+            @ApiParam(value = "Maximum number of employees to export, per sheet when sheetPerDepartment is set") @RequestParam(required = false) Integer limit,
+            @ApiParam(value = "Put every department on its own sheet. Only for 'xlsx'") @RequestParam(required = false, defaultValue = "false") boolean sheetPerDepartment,
+            @ApiParam(value = "Read and encode id ranges in parallel, ordered by id. Only for 'csv', without sort and limit") @RequestParam(required = false, defaultValue = "false") boolean parallel,
             HttpServletResponse response) {
 
 
@@ -137,18 +297,43 @@ public class EmployeeController {
             return ResponseEntity.badRequest().body("Invalid format. Please specify 'csv' or 'xlsx'.");
         }
 
-        List<Employee> employees = employeeService.getEmployees(department, yearAfter);
+        EmployeeQuery query;
+        try {
+            query = EmployeeQuery.parse(department, yearAfter, yearFrom, yearTo, fields, sort, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
 
-        if (employees.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No employees found for the given criteria.");
+        if (sheetPerDepartment) {
+            if (!"xlsx".equals(format)) {
+                return ResponseEntity.badRequest().body("Sheet per department is only supported for the 'xlsx' format.");
+            }
+            if (!employeeService.exportToExcelByDepartment(query, response)) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No employees found for the given criteria.");
+            }
+            return ResponseEntity.ok().build();
         }
 
-        if ("csv".equalsIgnoreCase(format)) {
-            employeeService.exportToCSV(employees, response);
-        } else if ("xlsx".equalsIgnoreCase(format)) {
-            employeeService.exportToExcel(employees, response);
+        if (parallel) {
+            if (!"csv".equals(format)) {
+                return ResponseEntity.badRequest().body("Parallel export is only supported for the 'csv' format.");
+            }
+            if (sort != null || limit != null) {
+                return ResponseEntity.badRequest().body("Parallel export is ordered by id and does not support sort or limit.");
+            }
+            if (!employeeService.exportToCSVParallel(query, response)) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No employees found for the given criteria.");
+            }
+            return ResponseEntity.ok().build();
         }
 
+        // the first row of the cursor decides the 204, nothing is written before it
+        boolean exported = "csv".equals(format)
+                ? employeeService.exportToCSV(query, response)
+                : employeeService.exportToExcel(query, response);
+        if (!exported) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).body("No employees found for the given criteria.");
+        }
         return ResponseEntity.ok().build();
     }
 }
@@ -0,0 +1,29 @@
+package com.example.emp.web.converter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public final class BinaryObjectMappers {
+
+    private BinaryObjectMappers() {
+    }
+
+    public static ObjectMapper smile() {
+        return create(new SmileFactory());
+    }
+
+    public static ObjectMapper cbor() {
+        return create(new CBORFactory());
+    }
+
+    private static ObjectMapper create(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .registerModule(new EpochDayModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+}
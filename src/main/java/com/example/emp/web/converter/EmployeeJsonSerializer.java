@@ -0,0 +1,72 @@
+package com.example.emp.web.converter;
+
+import com.example.emp.model.Employee;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes {@link Employee} as JSON without bean introspection: field names are pre-encoded and the
+ * ISO strings of hiring dates are formatted once and reused, as a listing only holds a few thousand
+ * distinct dates. The output is the same as the reflective serializer, null attributes are omitted.
+ * Only registered with the JSON mapper; Smile and CBOR keep using {@link EpochDayModule}.
+ */
+@JsonComponent
+public class EmployeeJsonSerializer extends StdSerializer<Employee> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString DEPARTMENT = new SerializedString("department");
+    private static final SerializedString YEAR_OF_EMPLOYMENT = new SerializedString("yearOfEmployment");
+
+    // every day of a century is about 36k entries, well beyond any real set of hiring dates
+    private static final int MAX_CACHED_DATES = 50_000;
+
+    private final Map<LocalDate, SerializedString> dates = new ConcurrentHashMap<>();
+
+    public EmployeeJsonSerializer() {
+        super(Employee.class);
+    }
+
+    @Override
+    public void serialize(Employee employee, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(employee);
+        if (employee.getId() != null) {
+            generator.writeFieldName(ID);
+            generator.writeNumber(employee.getId());
+        }
+        if (employee.getName() != null) {
+            generator.writeFieldName(NAME);
+            generator.writeString(employee.getName());
+        }
+        if (employee.getDepartment() != null) {
+            generator.writeFieldName(DEPARTMENT);
+            generator.writeString(employee.getDepartment());
+        }
+        if (employee.getYearOfEmployment() != null) {
+            generator.writeFieldName(YEAR_OF_EMPLOYMENT);
+            generator.writeString(date(employee.getYearOfEmployment()));
+        }
+        generator.writeEndObject();
+    }
+
+    SerializableString date(LocalDate date) {
+        SerializedString cached = dates.get(date);
+        if (cached != null) {
+            return cached;
+        }
+        SerializedString formatted = new SerializedString(date.toString());
+        if (dates.size() < MAX_CACHED_DATES) {
+            dates.putIfAbsent(date, formatted);
+        }
+        return formatted;
+    }
+}
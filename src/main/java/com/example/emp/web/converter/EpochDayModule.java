@@ -0,0 +1,56 @@
+package com.example.emp.web.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Writes {@link LocalDate} as a day count since 1970-01-01. Binary formats encode it as a small
+ * integer instead of a ten character ISO string. ISO strings are still accepted when reading.
+ */
+public class EpochDayModule extends SimpleModule {
+
+    public EpochDayModule() {
+        super("EpochDayModule");
+        addSerializer(LocalDate.class, new EpochDaySerializer());
+        addDeserializer(LocalDate.class, new EpochDayDeserializer());
+    }
+
+    static class EpochDaySerializer extends StdScalarSerializer<LocalDate> {
+
+        EpochDaySerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.toEpochDay());
+        }
+    }
+
+    static class EpochDayDeserializer extends StdScalarDeserializer<LocalDate> {
+
+        EpochDayDeserializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return LocalDate.parse(parser.getText().trim());
+            }
+            return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.emp.web.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limiter for a single endpoint. In adaptive mode the limit follows a latency
+ * gradient: while requests complete close to the best latency seen recently the limit grows,
+ * and it shrinks as soon as latency climbs, which means requests are queueing somewhere
+ * downstream (usually the connection pool). In fixed mode the limit stays constant and
+ * callers may wait in a bounded queue for a permit.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final int MIN_RTT_WINDOW = 500;
+
+    private final String name;
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final long maxQueueWaitNanos;
+    private final long retryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double estimatedLimit;
+    private int limit;
+    private int inFlight;
+    private int queued;
+    private long rejected;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceMinRttReset;
+
+    private AdaptiveConcurrencyLimiter(String name, boolean adaptive, int initialLimit, int minLimit, int maxLimit,
+                                       int maxQueueSize, long maxQueueWaitMs, long retryAfterSeconds) {
+        this.name = name;
+        this.adaptive = adaptive;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    public static AdaptiveConcurrencyLimiter adaptive(String name, int initialLimit, int minLimit, int maxLimit,
+                                                      long retryAfterSeconds) {
+        return new AdaptiveConcurrencyLimiter(name, true, initialLimit, minLimit, maxLimit, 0, 0, retryAfterSeconds);
+    }
+
+    public static AdaptiveConcurrencyLimiter fixed(String name, int maxConcurrent, int maxQueueSize, long maxQueueWaitMs,
+                                                   long retryAfterSeconds) {
+        return new AdaptiveConcurrencyLimiter(name, false, maxConcurrent, maxConcurrent, maxConcurrent,
+                maxQueueSize, maxQueueWaitMs, retryAfterSeconds);
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueueSize) {
+                rejected++;
+                return false;
+            }
+            queued++;
+            try {
+                long remainingNanos = maxQueueWaitNanos;
+                while (inFlight >= limit) {
+                    if (remainingNanos <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    remainingNanos = permitReleased.awaitNanos(remainingNanos);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected++;
+                return false;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            int inFlightAtCompletion = inFlight;
+            inFlight--;
+            if (adaptive) {
+                updateLimit(latencyNanos, inFlightAtCompletion);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updateLimit(long latencyNanos, int inFlightAtCompletion) {
+        if (latencyNanos <= 0) {
+            return;
+        }
+        if (++samplesSinceMinRttReset >= MIN_RTT_WINDOW) {
+            // forget the old minimum now and then so the baseline follows data growth
+            minRttNanos = latencyNanos;
+            samplesSinceMinRttReset = 0;
+        } else if (latencyNanos < minRttNanos) {
+            minRttNanos = latencyNanos;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * minRttNanos / latencyNanos));
+        if (gradient >= 1.0 && inFlightAtCompletion < limit / 2) {
+            // not using the current limit, so a good latency says nothing about a higher one
+            return;
+        }
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.emp.web.limit;
+
+import com.example.emp.business.handlers.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admission control for the employee endpoints: every handler method gets its own limiter, so
+ * a burst of expensive exports cannot take the capacity the cheap lookups need.
+ */
+@Log4j2
+@Component
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+    private static final String STARTED_AT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".startedAt";
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${emp.limits.enabled:true}")
+    private boolean enabled;
+
+    @Value("${emp.limits.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${emp.limits.min-limit:4}")
+    private int minLimit;
+
+    @Value("${emp.limits.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${emp.limits.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${emp.limits.export.endpoints:exportEmployees}")
+    private List<String> exportEndpoints;
+
+    @Value("${emp.limits.export.max-concurrent:2}")
+    private int exportMaxConcurrent;
+
+    @Value("${emp.limits.export.queue-size:10}")
+    private int exportQueueSize;
+
+    @Value("${emp.limits.export.max-wait-ms:5000}")
+    private long exportMaxWaitMs;
+
+    @Value("${emp.limits.export.retry-after-seconds:10}")
+    private long exportRetryAfterSeconds;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(handlerMethod.getMethod().getName(), this::createLimiter);
+        if (!limiter.tryAcquire()) {
+            log.warn("Rejecting request to {}: concurrency limit {} reached", limiter.getName(), limiter.getLimit());
+            throw new ServiceOverloadedException("The service is busy, please retry later.", limiter.getRetryAfterSeconds());
+        }
+
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        request.setAttribute(STARTED_AT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object limiter = request.getAttribute(LIMITER_ATTRIBUTE);
+        if (limiter instanceof AdaptiveConcurrencyLimiter acquiredLimiter) {
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            long startedAt = (Long) request.getAttribute(STARTED_AT_ATTRIBUTE);
+            acquiredLimiter.release(System.nanoTime() - startedAt);
+        }
+    }
+
+    public Map<String, AdaptiveConcurrencyLimiter> getLimiters() {
+        return limiters;
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String endpoint) {
+        AdaptiveConcurrencyLimiter limiter = exportEndpoints.contains(endpoint)
+                ? AdaptiveConcurrencyLimiter.fixed(endpoint, exportMaxConcurrent, exportQueueSize, exportMaxWaitMs, exportRetryAfterSeconds)
+                : AdaptiveConcurrencyLimiter.adaptive(endpoint, initialLimit, minLimit, maxLimit, retryAfterSeconds);
+        meterRegistry.ifAvailable(registry -> registerMetrics(registry, limiter));
+        return limiter;
+    }
+
+    private void registerMetrics(MeterRegistry registry, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("emp.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", limiter.getName())
+                .register(registry);
+        Gauge.builder("emp.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", limiter.getName())
+                .register(registry);
+        Gauge.builder("emp.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .tag("endpoint", limiter.getName())
+                .register(registry);
+        FunctionCounter.builder("emp.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .tag("endpoint", limiter.getName())
+                .register(registry);
+    }
+}
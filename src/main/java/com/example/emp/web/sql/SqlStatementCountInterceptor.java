@@ -0,0 +1,59 @@
+package com.example.emp.web.sql;
+
+import com.example.emp.business.repository.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Counts the SQL statements of every employee request, records them per endpoint and warns about
+ * requests that run more than {@code emp.sql.max-statements-per-request}, listing the statements.
+ */
+@Log4j2
+@Component
+public class SqlStatementCountInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ObjectProvider<SqlStatementCounter> sqlStatementCounter;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${emp.sql.max-statements-per-request:10}")
+    private int maxStatementsPerRequest = 10;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlStatementCounter.ifAvailable(SqlStatementCounter::reset);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementCounter counter = sqlStatementCounter.getIfAvailable();
+        if (counter == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        // not reset here, so tests can read the count of the request they just made
+        int count = counter.count();
+        String endpoint = handlerMethod.getMethod().getName();
+        meterRegistry.ifAvailable(registry -> DistributionSummary.builder("emp.sql.statements")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .record(count));
+        if (count > maxStatementsPerRequest) {
+            log.warn("{} {} ran {} SQL statements, more than {}: {}", request.getMethod(), request.getRequestURI(), count,
+                    maxStatementsPerRequest, counter.statements());
+        } else {
+            log.debug("{} {} ran {} SQL statements", request.getMethod(), request.getRequestURI(), count);
+        }
+    }
+}
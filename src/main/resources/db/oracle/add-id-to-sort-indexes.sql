@@ -0,0 +1,13 @@
+-- Rebuilds the indexes that serve sorted listings with id as their last column. Sorted queries break ties
+-- by id, so with id in the index a top-N query reads its rows in index order and stops at the limit instead
+-- of sorting every match. Run once by a DBA; the schema update does not change existing indexes. Add LOCAL
+-- to the first two if the employee table is partitioned by partition-employee-by-hire-year.sql.
+
+DROP INDEX idx_employee_department_year;
+CREATE INDEX idx_employee_department_year ON employee (department_id, year_of_employment, id) ONLINE;
+
+DROP INDEX idx_employee_year;
+CREATE INDEX idx_employee_year ON employee (year_of_employment, id) ONLINE;
+
+DROP INDEX idx_employee_name;
+CREATE INDEX idx_employee_name ON employee (name, id) ONLINE;
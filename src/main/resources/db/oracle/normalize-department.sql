@@ -0,0 +1,62 @@
+-- Moves department names into the department dictionary and replaces the name column of employee and
+-- employee_archive with the integer key. Run once by a DBA before the first start of a version with the
+-- dictionary, while the application is stopped; the schema update would otherwise add the new table and
+-- column empty. A database that predates the archive gets employee_archive created with the key column.
+
+CREATE TABLE department (
+    id   NUMBER(10) GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR2(255) NOT NULL,
+    CONSTRAINT pk_department PRIMARY KEY (id),
+    CONSTRAINT uk_department_name UNIQUE (name)
+);
+
+INSERT INTO department (name)
+SELECT DISTINCT department FROM employee WHERE department IS NOT NULL;
+
+ALTER TABLE employee ADD department_id NUMBER(10);
+
+UPDATE employee e
+SET e.department_id = (SELECT d.id FROM department d WHERE d.name = e.department)
+WHERE e.department IS NOT NULL;
+
+COMMIT;
+
+-- the index keeps its name but is built on the key; add LOCAL if the employee table is partitioned by
+-- partition-employee-by-hire-year.sql
+DROP INDEX idx_employee_department_year;
+CREATE INDEX idx_employee_department_year ON employee (department_id, year_of_employment, id) ONLINE;
+
+ALTER TABLE employee ADD CONSTRAINT fk_employee_department FOREIGN KEY (department_id) REFERENCES department (id);
+
+ALTER TABLE employee DROP COLUMN department;
+
+-- static SQL on employee_archive would not compile without the table, so every archive step is dynamic
+DECLARE
+    archive_tables NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO archive_tables FROM user_tables WHERE table_name = 'EMPLOYEE_ARCHIVE';
+    IF archive_tables = 0 THEN
+        EXECUTE IMMEDIATE 'CREATE TABLE employee_archive ('
+            || 'id NUMBER(19) NOT NULL, '
+            || 'name VARCHAR2(255), '
+            || 'department_id NUMBER(10), '
+            || 'year_of_employment DATE, '
+            || 'archived_at TIMESTAMP(6), '
+            || 'CONSTRAINT pk_employee_archive PRIMARY KEY (id))';
+    ELSE
+        EXECUTE IMMEDIATE 'INSERT INTO department (name) '
+            || 'SELECT DISTINCT a.department FROM employee_archive a '
+            || 'WHERE a.department IS NOT NULL AND NOT EXISTS (SELECT 1 FROM department d WHERE d.name = a.department)';
+        EXECUTE IMMEDIATE 'ALTER TABLE employee_archive ADD department_id NUMBER(10)';
+        EXECUTE IMMEDIATE 'UPDATE employee_archive a '
+            || 'SET a.department_id = (SELECT d.id FROM department d WHERE d.name = a.department) '
+            || 'WHERE a.department IS NOT NULL';
+        COMMIT;
+        EXECUTE IMMEDIATE 'DROP INDEX idx_employee_archive_department_year';
+        EXECUTE IMMEDIATE 'ALTER TABLE employee_archive DROP COLUMN department';
+    END IF;
+    EXECUTE IMMEDIATE 'CREATE INDEX idx_employee_archive_department_year ON employee_archive (department_id, year_of_employment)';
+    EXECUTE IMMEDIATE 'ALTER TABLE employee_archive ADD CONSTRAINT fk_employee_archive_department '
+        || 'FOREIGN KEY (department_id) REFERENCES department (id)';
+END;
+/
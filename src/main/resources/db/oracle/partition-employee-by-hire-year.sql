@@ -0,0 +1,15 @@
+-- Range-partitions the live employee table by hiring date, one partition per year, so date filtered
+-- queries and exports only read the partitions of the requested years. Run once by a DBA (Oracle 12.2+);
+-- the schema update of the application creates plain tables and does not touch existing partitioning.
+-- Interval partitioning rejects rows without a partition key, year_of_employment is required by the API.
+-- The employee_archive table is left to normalize-department.sql and the schema update.
+
+ALTER TABLE employee MODIFY
+    PARTITION BY RANGE (year_of_employment) INTERVAL (NUMTOYMINTERVAL(1, 'YEAR'))
+    (PARTITION p_before_2000 VALUES LESS THAN (DATE '2000-01-01'))
+    ONLINE
+    UPDATE INDEXES (
+        idx_employee_department_year LOCAL,
+        idx_employee_year LOCAL,
+        idx_employee_name GLOBAL
+    );
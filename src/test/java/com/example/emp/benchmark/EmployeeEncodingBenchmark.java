@@ -0,0 +1,106 @@
+package com.example.emp.benchmark;
+
+import com.example.emp.model.Employee;
+import com.example.emp.web.converter.BinaryObjectMappers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding and decoding of an employee listing as JSON, Smile and CBOR, using the
+ * same mappers as the HTTP message converters. Payload sizes are printed once per trial.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=EmployeeEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeEncodingBenchmark {
+
+    private static final String[] DEPARTMENTS = {"Engineering", "HR", "Finance", "Digital", "Sales"};
+
+    @Param({"10", "1000", "10000"})
+    private int employees;
+
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private ObjectMapper cbor;
+    private CollectionType listType;
+
+    private List<Employee> listing;
+    private byte[] jsonPayload;
+    private byte[] smilePayload;
+    private byte[] cborPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        json = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        smile = BinaryObjectMappers.smile();
+        cbor = BinaryObjectMappers.cbor();
+        listType = json.getTypeFactory().constructCollectionType(List.class, Employee.class);
+
+        listing = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            listing.add(new Employee((long) i + 1, "Employee " + i, DEPARTMENTS[i % DEPARTMENTS.length],
+                    LocalDate.of(2000 + i % 24, 1 + i % 12, 1 + i % 28)));
+        }
+        jsonPayload = json.writeValueAsBytes(listing);
+        smilePayload = smile.writeValueAsBytes(listing);
+        cborPayload = cbor.writeValueAsBytes(listing);
+        System.out.printf("%n%d employees: json %d bytes, smile %d bytes, cbor %d bytes%n",
+                employees, jsonPayload.length, smilePayload.length, cborPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        return json.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() throws Exception {
+        return smile.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws Exception {
+        return cbor.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public List<Employee> decodeJson() throws Exception {
+        return json.readValue(jsonPayload, listType);
+    }
+
+    @Benchmark
+    public List<Employee> decodeSmile() throws Exception {
+        return smile.readValue(smilePayload, listType);
+    }
+
+    @Benchmark
+    public List<Employee> decodeCbor() throws Exception {
+        return cbor.readValue(cborPayload, listType);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.emp.benchmark;
+
+import com.example.emp.business.export.ParallelCsvExporter;
+import com.example.emp.business.repository.DepartmentDictionary;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.model.IdRange;
+import com.example.emp.model.EmployeeQuery;
+import com.example.emp.seed.EmployeeDataGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the parallel CSV export against an embedded database for an increasing number of
+ * concurrently read id ranges and checks that every worker count produces the same output.
+ * Run with {@code mvn -Pexport-benchmark verify -Dbenchmark.export.rows=500000}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "emp.export.parallel-workers=8",
+        "emp.export.parallel-chunk-ids=10000",
+        "spring.datasource.hikari.maximum-pool-size=10"})
+@ActiveProfiles("embedded")
+public class ParallelCsvExportBenchmarkIT {
+
+    private static final int[] PARALLELISM = {1, 2, 4, 8};
+
+    @Autowired
+    private ParallelCsvExporter parallelCsvExporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    @Test
+    public void measureSpeedup() throws Exception {
+        int rows = Integer.getInteger("benchmark.export.rows", 200_000);
+        int runs = Integer.getInteger("benchmark.export.runs", 5);
+        seed(rows);
+
+        EmployeeQuery query = EmployeeQuery.of(null, null);
+        IdRange idRange = parallelCsvExporter.findIdRange(query).orElseThrow();
+
+        StringWriter expected = new StringWriter();
+        parallelCsvExporter.export(query, idRange, expected, 1);
+
+        System.out.printf("%nParallel CSV export of %d employees (%d runs each)%n", rows, runs);
+        System.out.printf("%-12s %12s %12s %10s%n", "parallelism", "median ms", "rows/s", "speedup");
+        long baselineMs = 0;
+        for (int parallelism : PARALLELISM) {
+            StringWriter output = new StringWriter();
+            parallelCsvExporter.export(query, idRange, output, parallelism);
+            assertEquals(expected.toString(), output.toString(), "Output differs with parallelism " + parallelism);
+
+            List<Long> timings = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                long startedAt = System.nanoTime();
+                parallelCsvExporter.export(query, idRange, Writer.nullWriter(), parallelism);
+                timings.add((System.nanoTime() - startedAt) / 1_000_000);
+            }
+            Collections.sort(timings);
+            long medianMs = Math.max(1, timings.get(timings.size() / 2));
+            if (parallelism == 1) {
+                baselineMs = medianMs;
+            }
+            System.out.printf("%-12d %12d %12d %9.2fx%n", parallelism, medianMs, rows * 1000L / medianMs,
+                    (double) baselineMs / medianMs);
+        }
+    }
+
+    private void seed(int rows) {
+        jdbcTemplate.update("DELETE FROM employee");
+        EmployeeDataGenerator generator = new EmployeeDataGenerator(42, LocalDate.of(1995, 1, 1), LocalDate.of(2024, 12, 31));
+        int batchSize = 5000;
+        for (long chunk = 0; chunk * batchSize < rows; chunk++) {
+            List<EmployeeDAO> employees = generator.generateChunk(chunk, (int) Math.min(batchSize, rows - chunk * batchSize));
+            jdbcTemplate.batchUpdate("INSERT INTO employee (name, department_id, year_of_employment) VALUES (?, ?, ?)",
+                    employees, employees.size(), (statement, employee) -> {
+                        statement.setString(1, employee.getName());
+                        statement.setInt(2, departmentDictionary.register(employee.getDepartment()));
+                        statement.setDate(3, Date.valueOf(employee.getYearOfEmployment()));
+                    });
+        }
+    }
+}
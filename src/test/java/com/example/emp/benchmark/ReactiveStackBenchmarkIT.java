@@ -0,0 +1,141 @@
+package com.example.emp.benchmark;
+
+import com.example.emp.business.repository.DepartmentDictionary;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.loadtest.LatencyRecorder;
+import com.example.emp.reactive.ReactiveEmployeeServer;
+import com.example.emp.seed.EmployeeDataGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends the same read traffic to the servlet and the reactive API at a high number of concurrent
+ * requests and reports throughput, latency percentiles and the peak number of live threads.
+ * Admission control and coalescing are off, so both stacks see every request.
+ * Run with {@code mvn -Preactive-benchmark verify -Dbenchmark.reactive.concurrency=1000}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "emp.reactive.port=0",
+        "emp.limits.enabled=false",
+        "emp.coalescing.enabled=false",
+        "emp.export.cache.enabled=false"})
+@ActiveProfiles("embedded")
+public class ReactiveStackBenchmarkIT {
+
+    private static final String[] DEPARTMENTS = {"Engineering", "Sales", "Operations", "Digital"};
+
+    @LocalServerPort
+    private int servletPort;
+
+    @Autowired
+    private ReactiveEmployeeServer reactiveEmployeeServer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private long firstId;
+
+    @Test
+    public void compareStacks() throws Exception {
+        int rows = Integer.getInteger("benchmark.reactive.rows", 20_000);
+        int concurrency = Integer.getInteger("benchmark.reactive.concurrency", 1000);
+        int requests = Integer.getInteger("benchmark.reactive.requests", 20_000);
+        seed(rows);
+        firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM employee", Long.class);
+        assertTrue(reactiveEmployeeServer.getPort() > 0, "Reactive API is not running");
+
+        System.out.printf("%nServlet vs reactive API, %d employees, %d requests, %d concurrent%n", rows, requests, concurrency);
+        System.out.printf("%-10s %10s %10s %10s %10s %8s %12s%n", "stack", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "peak threads");
+        for (String stack : List.of("servlet", "reactive")) {
+            int port = "servlet".equals(stack) ? servletPort : reactiveEmployeeServer.getPort();
+            // warm-up, not measured
+            run(port, concurrency, Math.min(requests, 2000), new LatencyRecorder());
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            threads.resetPeakThreadCount();
+            LatencyRecorder recorder = new LatencyRecorder();
+            long startedAt = System.nanoTime();
+            run(port, concurrency, requests, recorder);
+            long elapsedMs = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+
+            LatencyRecorder.EndpointStats stats = recorder.snapshot().get(stack);
+            System.out.printf("%-10s %10d %10.1f %10.1f %10.1f %8d %12d%n", stack, requests * 1000L / elapsedMs,
+                    stats.percentileMicros(50) / 1000.0, stats.percentileMicros(99) / 1000.0,
+                    stats.percentileMicros(100) / 1000.0, stats.getErrors(), threads.getPeakThreadCount());
+        }
+    }
+
+    private void run(int port, int concurrency, int requests, LatencyRecorder recorder) throws Exception {
+        String stack = port == servletPort ? "servlet" : "reactive";
+        Semaphore inFlight = new Semaphore(concurrency);
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path(i)))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .build();
+            inFlight.acquire();
+            long startedAt = System.nanoTime();
+            responses[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.release();
+                        if (failure != null) {
+                            recorder.recordFailure(stack);
+                        } else {
+                            recorder.record(stack, (System.nanoTime() - startedAt) / 1000, response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).exceptionally(failure -> null).join();
+    }
+
+    // mostly single employee reads with a share of small filtered lists, as seen in production
+    private String path(int request) {
+        if (request % 10 == 0) {
+            return "/employees?department=" + DEPARTMENTS[request / 10 % DEPARTMENTS.length] + "&sort=-yearOfEmployment&limit=50";
+        }
+        return "/employees/" + (firstId + request % 1000);
+    }
+
+    private void seed(int rows) {
+        jdbcTemplate.update("DELETE FROM employee");
+        EmployeeDataGenerator generator = new EmployeeDataGenerator(42, LocalDate.of(1995, 1, 1), LocalDate.of(2024, 12, 31));
+        int batchSize = 5000;
+        for (long chunk = 0; chunk * batchSize < rows; chunk++) {
+            List<EmployeeDAO> employees = generator.generateChunk(chunk, (int) Math.min(batchSize, rows - chunk * batchSize));
+            jdbcTemplate.batchUpdate("INSERT INTO employee (name, department_id, year_of_employment) VALUES (?, ?, ?)",
+                    employees, employees.size(), (statement, employee) -> {
+                        statement.setString(1, employee.getName());
+                        statement.setInt(2, departmentDictionary.register(employee.getDepartment()));
+                        statement.setDate(3, Date.valueOf(employee.getYearOfEmployment()));
+                    });
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.emp.benchmark;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the packaged application until the context is refreshed and reports the median
+ * wall-clock startup time of each mode that the build produced. Run with
+ * {@code mvn -Pfast-startup,cds,startup-benchmark verify}.
+ */
+public class StartupTimeBenchmarkIT {
+
+    private static final Path JAVA = Path.of(System.getProperty("java.home"), "bin", "java");
+
+    @Test
+    public void measureStartupTime() throws Exception {
+        Path jar = Path.of(System.getProperty("benchmark.jar"));
+        Path cdsDirectory = Path.of(System.getProperty("benchmark.cds.directory"));
+        boolean aotEnabled = Boolean.parseBoolean(System.getProperty("benchmark.aot.enabled", "false"));
+        int runs = Integer.parseInt(System.getProperty("benchmark.runs", "5"));
+        assertTrue(Files.exists(jar), "Package the application before running the benchmark: " + jar);
+
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+        modes.put("default", List.of("-jar", jar.toString()));
+        modes.put("fast-startup profile", List.of("-Dspring.profiles.active=fast-startup", "-jar", jar.toString()));
+        if (aotEnabled) {
+            modes.put("fast-startup profile + AOT", List.of("-Dspring.profiles.active=fast-startup",
+                    "-Dspring.aot.enabled=true", "-jar", jar.toString()));
+        }
+        Path archive = cdsDirectory.resolve("application.jsa");
+        Path extractedJar = cdsDirectory.resolve(jar.getFileName());
+        if (Files.exists(archive) && Files.exists(extractedJar)) {
+            modes.put("fast-startup profile" + (aotEnabled ? " + AOT" : "") + " + CDS",
+                    List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.profiles.active=fast-startup",
+                            "-Dspring.aot.enabled=" + aotEnabled, "-jar", extractedJar.toString()));
+        }
+
+        System.out.printf("%-40s %12s %12s%n", "mode", "median ms", "best ms");
+        for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+            List<Long> timings = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                timings.add(startOnce(mode.getValue()));
+            }
+            Collections.sort(timings);
+            System.out.printf("%-40s %12d %12d%n", mode.getKey(), timings.get(timings.size() / 2), timings.get(0));
+        }
+    }
+
+    private long startOnce(List<String> arguments) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(JAVA.toString());
+        command.add("-Dspring.context.exit=onRefresh");
+        command.addAll(arguments);
+
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES), "Application did not start in time: " + command);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        assertEquals(0, process.exitValue(), "Application failed to start: " + command);
+        return elapsedMs;
+    }
+}
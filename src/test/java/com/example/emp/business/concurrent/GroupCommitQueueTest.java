@@ -0,0 +1,130 @@
+package com.example.emp.business.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GroupCommitQueueTest {
+
+    private final List<List<Integer>> commits = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private GroupCommitQueue<Integer, String> queue;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrentItemsShareOneCommit() throws Exception {
+        queue = start(5, 5, 5000, items -> items.stream().map(item -> "saved " + item).toList());
+
+        List<Future<String>> results = submitConcurrently(1, 2, 3, 4, 5);
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals("saved " + (i + 1), results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, commits.size());
+        assertEquals(5, commits.get(0).size());
+        assertEquals(1, queue.getCommits());
+        assertEquals(5, queue.getCommittedItems());
+    }
+
+    @Test
+    void testFailedGroupIsRetriedOneByOne() throws Exception {
+        queue = start(10, 3, 5000, items -> {
+            if (items.contains(2)) {
+                throw new IllegalArgumentException("Invalid item 2");
+            }
+            return items.stream().map(item -> "saved " + item).toList();
+        });
+
+        List<Future<String>> results = submitConcurrently(1, 2, 3);
+
+        assertEquals("saved 1", results.get(0).get(5, TimeUnit.SECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        assertEquals("saved 3", results.get(2).get(5, TimeUnit.SECONDS));
+        assertEquals(1, queue.getFailedItems());
+        assertEquals(2, queue.getCommittedItems());
+    }
+
+    @Test
+    void testFullQueueRejectsImmediately() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        queue = start(1, 1, 0, items -> {
+            writing.countDown();
+            await(release);
+            return List.of("saved " + items.get(0));
+        });
+
+        Future<String> first = executor.submit(() -> queue.submit(1));
+        writing.await(5, TimeUnit.SECONDS);
+        Future<String> second = executor.submit(() -> queue.submit(2));
+        while (queue.getQueueDepth() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(3));
+
+        release.countDown();
+        assertEquals("saved 1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("saved 2", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmitAfterShutdownIsRejected() {
+        queue = start(10, 10, 0, items -> items.stream().map(String::valueOf).toList());
+
+        queue.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(1));
+    }
+
+    private GroupCommitQueue<Integer, String> start(int capacity, int maxBatchSize, long maxDelayMs,
+                                                    Function<List<Integer>, List<String>> writer) {
+        GroupCommitQueue<Integer, String> started = new GroupCommitQueue<>("test", capacity, maxBatchSize, maxDelayMs, items -> {
+            commits.add(items);
+            return writer.apply(items);
+        });
+        started.start();
+        return started;
+    }
+
+    private List<Future<String>> submitConcurrently(Integer... items) {
+        List<Future<String>> results = new ArrayList<>();
+        for (Integer item : items) {
+            results.add(executor.submit(() -> queue.submit(item)));
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.emp.business.concurrent;
+
+import com.example.emp.business.handlers.EmployeeNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testConcurrentCallsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(5, () -> singleFlight.execute("IT", 5000, () -> {
+            executions.incrementAndGet();
+            await(release);
+            return "result";
+        }));
+        awaitInFlight();
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("result", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    void testExceptionIsPropagatedToAllCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(3, () -> singleFlight.execute("999", 5000, () -> {
+            await(release);
+            throw new EmployeeNotFoundException("Employee is not found or has left the organization.");
+        }));
+        awaitInFlight();
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(EmployeeNotFoundException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    void testWaiterIsRejectedAfterMaxWaitWithoutRunningTheLoader() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> singleFlight.execute("IT", 5000, () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "slow";
+            }));
+            awaitInFlight();
+
+            assertThrows(RejectedExecutionException.class, () -> singleFlight.execute("IT", 10, () -> {
+                executions.incrementAndGet();
+                return "fast";
+            }));
+
+            release.countDown();
+            assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCompletedCallsAreNotCached() {
+        AtomicInteger executions = new AtomicInteger();
+
+        singleFlight.execute("IT", 5000, () -> "first " + executions.incrementAndGet());
+        String second = singleFlight.execute("IT", 5000, () -> "second " + executions.incrementAndGet());
+
+        assertEquals("second 2", second);
+    }
+
+    private List<Future<String>> runConcurrently(int callers, Callable<String> call) {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(executor.submit(call));
+        }
+        executor.shutdown();
+        return results;
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        while (singleFlight.getInFlightCount() == 0) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
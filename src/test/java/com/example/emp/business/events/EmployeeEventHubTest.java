@@ -0,0 +1,155 @@
+package com.example.emp.business.events;
+
+import com.example.emp.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmployeeEventHubTest {
+
+    private EmployeeEventHub employeeEventHub;
+
+    @BeforeEach
+    void setUp() {
+        employeeEventHub = new EmployeeEventHub();
+        employeeEventHub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeEventHub.shutdown();
+    }
+
+    @Test
+    void testEventsAfterReturnsOnlyNewerEvents() {
+        employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(1L, "John Doe", "IT", LocalDate.of(2020, 1, 1)));
+        employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(2L, "Jane Doe", "HR", LocalDate.of(2021, 1, 1)));
+        employeeEventHub.publish(EmployeeEventType.DELETED, new Employee(1L, "John Doe", "IT", LocalDate.of(2020, 1, 1)));
+
+        List<EmployeeEvent> events = employeeEventHub.eventsAfter(1L, null);
+
+        assertEquals(2, events.size());
+        assertEquals(2L, events.get(0).getId());
+        assertEquals(EmployeeEventType.DELETED, events.get(1).getType());
+    }
+
+    @Test
+    void testEventsAfterFiltersByDepartment() {
+        employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(1L, "John Doe", "IT", LocalDate.of(2020, 1, 1)));
+        employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(2L, "Jane Doe", "HR", LocalDate.of(2021, 1, 1)));
+
+        List<EmployeeEvent> events = employeeEventHub.eventsAfter(0L, "HR");
+
+        assertEquals(1, events.size());
+        assertEquals("Jane Doe", events.get(0).getEmployee().getName());
+    }
+
+    @Test
+    void testHistoryIsBounded() {
+        ReflectionTestUtils.setField(employeeEventHub, "historySize", 2);
+
+        for (long id = 1; id <= 5; id++) {
+            employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(id, "John Doe", "IT", LocalDate.of(2020, 1, 1)));
+        }
+
+        List<EmployeeEvent> events = employeeEventHub.eventsAfter(0L, null);
+        assertEquals(2, events.size());
+        assertEquals(4L, events.get(0).getId());
+        assertEquals(5L, events.get(1).getId());
+    }
+
+    @Test
+    void testSubscribeRegistersSubscriber() {
+        assertNotNull(employeeEventHub.subscribe("IT", null));
+        assertNotNull(employeeEventHub.subscribe(null, 3L));
+
+        assertEquals(2, employeeEventHub.getSubscriberCount());
+        assertTrue(employeeEventHub.eventsAfter(0L, null).isEmpty());
+    }
+
+    @Test
+    void testSubscriberThatDoesNotKeepUpIsDropped() throws Exception {
+        ReflectionTestUtils.setField(employeeEventHub, "subscriberQueueSize", 2);
+        ((ExecutorService) ReflectionTestUtils.getField(employeeEventHub, "senders")).shutdownNow();
+        CountDownLatch stuck = new CountDownLatch(1);
+        ThreadPoolExecutor senders = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        // the only sender is busy, so no queue is drained
+        senders.execute(() -> {
+            try {
+                stuck.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(employeeEventHub, "senders", senders);
+        employeeEventHub.subscribe("IT", null);
+        employeeEventHub.subscribe("HR", null);
+
+        for (long id = 1; id <= 3; id++) {
+            employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(id, "John Doe", "IT", LocalDate.of(2020, 1, 1)));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (employeeEventHub.getSubscriberCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        stuck.countDown();
+        assertEquals(1, employeeEventHub.getSubscriberCount());
+    }
+
+    @Test
+    void testStalledSubscriberDoesNotDelayTheOthers() throws Exception {
+        employeeEventHub.shutdown();
+        employeeEventHub = new EmployeeEventHub();
+        ReflectionTestUtils.setField(employeeEventHub, "senderThreads", 1);
+        ReflectionTestUtils.setField(employeeEventHub, "sendTimeoutMs", 100L);
+        employeeEventHub.start();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(1);
+        // a client that stopped reading, its send blocks the only sender thread
+        employeeEventHub.subscribe(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                sending.countDown();
+                try {
+                    stuck.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "IT", null);
+
+        try {
+            employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(1L, "John Doe", "IT", LocalDate.of(2020, 1, 1)));
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+            employeeEventHub.subscribe(new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    received.countDown();
+                }
+            }, null, null);
+            employeeEventHub.publish(EmployeeEventType.CREATED, new Employee(2L, "Jane Doe", "HR", LocalDate.of(2021, 1, 1)));
+
+            assertTrue(received.await(5, TimeUnit.SECONDS), "the second subscriber waited for the stalled one");
+            assertEquals(1, employeeEventHub.getSubscriberCount());
+        } finally {
+            stuck.countDown();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.emp.business.export;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExportCacheTest {
+
+    private static final String CSV = "text/csv";
+
+    @TempDir
+    Path directory;
+
+    private ExportCache exportCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        exportCache = new ExportCache();
+        ReflectionTestUtils.setField(exportCache, "directoryName", directory.toString());
+        ReflectionTestUtils.setField(exportCache, "maxSize", DataSize.ofBytes(100));
+        ReflectionTestUtils.setField(exportCache, "deleteDelayMs", 0L);
+        exportCache.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportCache.shutdown();
+    }
+
+    @Test
+    void testStoreAndLookup() throws Exception {
+        ExportCache.Entry entry = store("format=csv", Set.of(), "ID,Name\n").orElseThrow();
+
+        assertEquals(entry, exportCache.lookup("format=csv", Set.of()).orElseThrow());
+        assertEquals("ID,Name\n", Files.readString(entry.file()));
+        assertEquals(8, exportCache.getTotalBytes());
+        assertTrue(exportCache.lookup("format=xlsx", Set.of()).isEmpty());
+    }
+
+    @Test
+    void testWriteInvalidatesAffectedDepartmentAndUnfilteredExports() throws Exception {
+        store("format=csv", Set.of(), "all");
+        store("department=HR", Set.of("HR"), "hr");
+        store("department=Sales", Set.of("Sales"), "sales");
+
+        exportCache.invalidate("HR");
+
+        assertTrue(exportCache.lookup("format=csv", Set.of()).isEmpty());
+        assertTrue(exportCache.lookup("department=HR", Set.of("HR")).isEmpty());
+        assertTrue(exportCache.lookup("department=Sales", Set.of("Sales")).isPresent());
+        assertEquals(5, exportCache.getTotalBytes());
+    }
+
+    @Test
+    void testWriteWithoutDepartmentInvalidatesOnlyUnfilteredExports() throws Exception {
+        store("format=csv", Set.of(), "all");
+        store("department=HR", Set.of("HR"), "hr");
+
+        exportCache.invalidate(null);
+
+        assertTrue(exportCache.lookup("format=csv", Set.of()).isEmpty());
+        assertTrue(exportCache.lookup("department=HR", Set.of("HR")).isPresent());
+    }
+
+    @Test
+    void testRenderingOverlappingAWriteIsNotCached() throws Exception {
+        long version = exportCache.version(Set.of("HR"));
+        Path rendered = render("hr");
+
+        exportCache.invalidate("HR");
+
+        assertTrue(exportCache.store("department=HR", Set.of("HR"), version, rendered, CSV, null).isEmpty());
+        assertTrue(Files.exists(rendered));
+    }
+
+    @Test
+    void testWriteInvalidatesExportsOfSeveralDepartments() throws Exception {
+        store("department=HR&department=Sales", Set.of("HR", "Sales"), "both");
+
+        exportCache.invalidate("Sales");
+
+        assertTrue(exportCache.lookup("department=HR&department=Sales", Set.of("HR", "Sales")).isEmpty());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws Exception {
+        store("first", Set.of(), "a".repeat(40));
+        store("second", Set.of(), "b".repeat(40));
+        exportCache.lookup("first", Set.of());
+
+        store("third", Set.of(), "c".repeat(40));
+
+        assertTrue(exportCache.lookup("first", Set.of()).isPresent());
+        assertTrue(exportCache.lookup("second", Set.of()).isEmpty());
+        assertTrue(exportCache.lookup("third", Set.of()).isPresent());
+        assertEquals(80, exportCache.getTotalBytes());
+    }
+
+    @Test
+    void testExportLargerThanCacheIsNotCached() throws Exception {
+        assertFalse(store("huge", Set.of(), "x".repeat(101)).isPresent());
+        assertEquals(0, exportCache.getTotalBytes());
+    }
+
+    private Optional<ExportCache.Entry> store(String request, Set<String> departments, String content) throws Exception {
+        return exportCache.store(request, departments, exportCache.version(departments), render(content), CSV, null);
+    }
+
+    private Path render(String content) throws Exception {
+        Path file = exportCache.createTempFile();
+        Files.writeString(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.emp.business.export;
+
+import com.example.emp.business.handlers.ExportException;
+import com.example.emp.business.mappers.EmployeeMapStructMapper;
+import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.model.IdRange;
+import com.example.emp.business.repository.shard.EmployeeShards;
+import com.example.emp.business.service.impl.EmployeeServiceImpl;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+public class ParallelCsvExporterTest {
+
+    private static final String[] DEPARTMENTS = {"Engineering", "HR", "Finance, Accounting", "Sales \"EU\""};
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeMapStructMapper employeeMapStructMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private EmployeeShards employeeShards = new EmployeeShards();
+
+    @InjectMocks
+    private ParallelCsvExporter exporter;
+
+    private final List<EmployeeDAO> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(exporter, "chunkIds", 7L);
+        exporter.start();
+
+        // ids with gaps, so some ranges are empty
+        for (long id = 3; id <= 120; id += 1 + id % 3) {
+            employees.add(new EmployeeDAO(id, "Employee " + id, DEPARTMENTS[(int) (id % DEPARTMENTS.length)],
+                    LocalDate.of(2000 + (int) (id % 24), 1, 1)));
+        }
+        when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenAnswer(invocation -> toEmployee(invocation.getArgument(0)));
+        doAnswer(invocation -> {
+            EmployeeQuery query = invocation.getArgument(0);
+            Consumer<EmployeeDAO> consumer = invocation.getArgument(2);
+            employees.stream()
+                    .filter(dao -> dao.getId() >= query.getIdFrom() && dao.getId() < query.getIdTo())
+                    .filter(dao -> query.getDepartments().isEmpty() || query.getDepartments().contains(dao.getDepartment()))
+                    .forEach(consumer);
+            return null;
+        }).when(employeeRepository).streamEmployees(any(EmployeeQuery.class), anyInt(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.shutdown();
+    }
+
+    @Test
+    void testExport_MatchesSequentialExport() throws Exception {
+        IdRange idRange = new IdRange(employees.get(0).getId(), employees.get(employees.size() - 1).getId());
+
+        for (int parallelism : new int[]{1, 2, 4}) {
+            StringWriter output = new StringWriter();
+            exporter.export(EmployeeQuery.of(null, null), idRange, output, parallelism);
+
+            assertEquals(sequentialExport(employees, EmployeeField.ALL), output.toString(), "parallelism " + parallelism);
+        }
+    }
+
+    @Test
+    void testExport_SelectedFieldsAndFilter() throws Exception {
+        EmployeeQuery query = EmployeeQuery.builder()
+                .departments(Set.of("HR"))
+                .fields(EnumSet.of(EmployeeField.ID, EmployeeField.NAME))
+                .build();
+        List<EmployeeDAO> hr = employees.stream().filter(dao -> "HR".equals(dao.getDepartment())).collect(Collectors.toList());
+        StringWriter output = new StringWriter();
+
+        exporter.export(query, new IdRange(hr.get(0).getId(), hr.get(hr.size() - 1).getId()), output);
+
+        assertEquals(sequentialExport(hr, query.getFields()), output.toString());
+    }
+
+    @Test
+    void testExport_FailingRangeFailsExport() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Connection lost");
+        }).when(employeeRepository).streamEmployees(any(EmployeeQuery.class), anyInt(), any());
+
+        ExportException exception = assertThrows(ExportException.class,
+                () -> exporter.export(EmployeeQuery.of(null, null), new IdRange(1, 100), new StringWriter()));
+
+        assertEquals("Connection lost", exception.getCause().getMessage());
+    }
+
+    private String sequentialExport(List<EmployeeDAO> employeeDAOs, Set<EmployeeField> fields) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new EmployeeServiceImpl().exportToCSV(employeeDAOs.stream().map(this::toEmployee).collect(Collectors.toList()), fields, response);
+        return response.getContentAsString();
+    }
+
+    private Employee toEmployee(EmployeeDAO dao) {
+        return new Employee(dao.getId(), dao.getName(), dao.getDepartment(), dao.getYearOfEmployment());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.emp.business.export;
+
+import com.example.emp.business.handlers.ExportException;
+import com.example.emp.business.mappers.EmployeeMapStructMapper;
+import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+public class PartitionedExcelExporterTest {
+
+    private static final List<EmployeeDAO> EMPLOYEES = List.of(
+            new EmployeeDAO(1L, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)),
+            new EmployeeDAO(2L, "Jane Doe", "HR", LocalDate.of(2021, 2, 3)),
+            new EmployeeDAO(3L, "Jack Doe", "Engineering", LocalDate.of(2022, 4, 5)));
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeMapStructMapper employeeMapStructMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PartitionedExcelExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exporter.start();
+
+        when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenAnswer(invocation -> {
+            EmployeeDAO dao = invocation.getArgument(0);
+            return new Employee(dao.getId(), dao.getName(), dao.getDepartment(), dao.getYearOfEmployment());
+        });
+        doAnswer(invocation -> {
+            EmployeeQuery query = invocation.getArgument(0);
+            Consumer<EmployeeDAO> consumer = invocation.getArgument(2);
+            EMPLOYEES.stream().filter(dao -> query.getDepartments().contains(dao.getDepartment())).forEach(consumer);
+            return null;
+        }).when(employeeRepository).streamEmployees(any(EmployeeQuery.class), anyInt(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.shutdown();
+    }
+
+    @Test
+    void testExport_OneSheetPerDepartment() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        exporter.export(EmployeeQuery.of(null, null), List.of("Engineering", "HR"), output);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()))) {
+            assertEquals(2, workbook.getNumberOfSheets());
+
+            Sheet engineering = workbook.getSheet("Engineering");
+            assertEquals("ID", engineering.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("YearOfEmployment", engineering.getRow(0).getCell(3).getStringCellValue());
+            assertEquals(2, engineering.getLastRowNum());
+            assertEquals(1L, (long) engineering.getRow(1).getCell(0).getNumericCellValue());
+            assertEquals("Jack Doe", engineering.getRow(2).getCell(1).getStringCellValue());
+            assertEquals("2022-04-05", engineering.getRow(2).getCell(3).getStringCellValue());
+
+            Sheet hr = workbook.getSheet("HR");
+            assertEquals(1, hr.getLastRowNum());
+            assertEquals("Jane Doe", hr.getRow(1).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    void testExport_SelectedFields() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EmployeeQuery query = EmployeeQuery.builder().fields(EnumSet.of(EmployeeField.NAME)).build();
+
+        exporter.export(query, List.of("HR"), output);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()))) {
+            Sheet hr = workbook.getSheet("HR");
+            assertEquals(1, hr.getRow(0).getLastCellNum());
+            assertEquals("Name", hr.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Jane Doe", hr.getRow(1).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    void testExport_FailingSheetFailsExport() {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("Connection lost");
+        }).when(employeeRepository).streamEmployees(any(EmployeeQuery.class), anyInt(), any());
+
+        ExportException exception = assertThrows(ExportException.class,
+                () -> exporter.export(EmployeeQuery.of(null, null), List.of("Engineering", "HR"), new ByteArrayOutputStream()));
+
+        assertEquals("Connection lost", exception.getCause().getMessage());
+    }
+
+    @Test
+    void testSheetName_IsSafeAndUnique() {
+        Set<String> usedNames = new HashSet<>();
+
+        assertEquals("Sales", PartitionedExcelExporter.sheetName("Sales", usedNames));
+        assertEquals("sales (2)", PartitionedExcelExporter.sheetName("sales", usedNames));
+        assertEquals("R D", PartitionedExcelExporter.sheetName("R/D", usedNames));
+        assertEquals(31, PartitionedExcelExporter.sheetName("A department name that is far too long", usedNames).length());
+    }
+}
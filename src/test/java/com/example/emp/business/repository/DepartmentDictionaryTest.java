@@ -0,0 +1,53 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.repository.shard.EmployeeShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DepartmentDictionaryTest {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:department-dictionary;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final DepartmentDictionary departmentDictionary = new DepartmentDictionary();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE department (id INT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO department (id, name) VALUES (1, 'HR')");
+        ReflectionTestUtils.setField(departmentDictionary, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(departmentDictionary, "employeeShards", new EmployeeShards());
+        ReflectionTestUtils.setField(departmentDictionary, "minReloadIntervalMs", 60000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE department");
+    }
+
+    @Test
+    void testFindLoadsTheTable() {
+        assertEquals(Optional.of(1), departmentDictionary.find("HR"));
+    }
+
+    @Test
+    void testUnknownDepartmentsDoNotReadTheTableAgainWithinTheInterval() {
+        assertTrue(departmentDictionary.find("Legal").isEmpty());
+        jdbcTemplate.update("INSERT INTO department (id, name) VALUES (2, 'Legal')");
+
+        assertTrue(departmentDictionary.find("Legal").isEmpty());
+
+        ReflectionTestUtils.setField(departmentDictionary, "minReloadIntervalMs", 0L);
+        assertEquals(Optional.of(2), departmentDictionary.find("Legal"));
+    }
+}
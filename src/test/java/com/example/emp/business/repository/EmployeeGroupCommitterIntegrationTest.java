@@ -0,0 +1,65 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.repository.model.EmployeeDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "emp.group-commit.enabled=true",
+        "emp.group-commit.max-batch-size=3",
+        "emp.group-commit.max-delay-ms=5000"})
+public class EmployeeGroupCommitterIntegrationTest {
+
+    @Autowired
+    private EmployeeGroupCommitter employeeGroupCommitter;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    public void testGroupWithAFailingEmployeeInsertsTheOthersAgain() {
+        EmployeeDAO first = new EmployeeDAO(null, "Jane Doe", "HR", LocalDate.of(2021, 1, 1));
+        // longer than the name column, fails the insert and rolls back the group
+        EmployeeDAO failing = new EmployeeDAO(null, "x".repeat(300), "HR", LocalDate.of(2021, 1, 1));
+        EmployeeDAO second = new EmployeeDAO(null, "John Doe", "Sales", LocalDate.of(2022, 1, 1));
+
+        // a full group is committed at once, the three saves share it
+        List<CompletableFuture<EmployeeDAO>> saves = List.of(first, failing, second).stream()
+                .map(employee -> CompletableFuture.supplyAsync(() -> employeeGroupCommitter.save(employee)))
+                .toList();
+
+        EmployeeDAO savedFirst = saves.get(0).orTimeout(30, TimeUnit.SECONDS).join();
+        EmployeeDAO savedSecond = saves.get(2).orTimeout(30, TimeUnit.SECONDS).join();
+        assertThrows(CompletionException.class, () -> saves.get(1).orTimeout(30, TimeUnit.SECONDS).join());
+
+        // inserted again as new entities, not merged copies with the ids of the rolled back inserts
+        assertSame(first, savedFirst);
+        assertSame(second, savedSecond);
+        assertNotNull(savedFirst.getId());
+        assertEquals("Jane Doe", jdbcTemplate.queryForObject("SELECT name FROM employee WHERE id = ?", String.class, savedFirst.getId()));
+        assertEquals("John Doe", jdbcTemplate.queryForObject("SELECT name FROM employee WHERE id = ?", String.class, savedSecond.getId()));
+        assertEquals(2, employeeRepository.count());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.emp.business.repository;
+
+import com.example.emp.business.repository.shard.EmployeeShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmployeeIdFilterTest {
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:id-filter;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private final EmployeeIdFilter employeeIdFilter = new EmployeeIdFilter();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("CREATE TABLE employee (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.batchUpdate("INSERT INTO employee (id) VALUES (?)", List.of(new Object[]{1L}, new Object[]{2L}, new Object[]{5L}));
+        ReflectionTestUtils.setField(employeeIdFilter, "dataSource", dataSource);
+        ReflectionTestUtils.setField(employeeIdFilter, "employeeShards", new EmployeeShards());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE employee");
+    }
+
+    @Test
+    void testEverythingMightExistBeforeTheFirstLoad() {
+        assertTrue(employeeIdFilter.mightContain(3));
+        assertEquals(0, employeeIdFilter.size());
+    }
+
+    @Test
+    void testMissingIdsAreDefiniteMisses() {
+        employeeIdFilter.load();
+        employeeIdFilter.load();
+
+        assertTrue(employeeIdFilter.mightContain(1));
+        assertTrue(employeeIdFilter.mightContain(5));
+        assertFalse(employeeIdFilter.mightContain(3));
+        assertEquals(3, employeeIdFilter.size());
+    }
+
+    @Test
+    void testIdsAboveTheLoadedRangeMightExist() {
+        employeeIdFilter.load();
+        employeeIdFilter.load();
+
+        // could have been created by another instance since the load
+        assertTrue(employeeIdFilter.mightContain(6));
+    }
+
+    @Test
+    void testMissesAreOnlyTrustedBelowThePreviousLoad() {
+        employeeIdFilter.load();
+        jdbcTemplate.update("INSERT INTO employee (id) VALUES (7)");
+        employeeIdFilter.load();
+
+        // 6 may be a transaction of another instance that commits after 7
+        assertTrue(employeeIdFilter.mightContain(6));
+        assertFalse(employeeIdFilter.mightContain(4));
+    }
+
+    @Test
+    void testCreatesAndDeletesAreApplied() {
+        employeeIdFilter.load();
+        employeeIdFilter.load();
+
+        employeeIdFilter.add(3);
+        employeeIdFilter.removeAll(List.of(1L, 5L));
+
+        assertTrue(employeeIdFilter.mightContain(3));
+        assertFalse(employeeIdFilter.mightContain(1));
+        assertFalse(employeeIdFilter.mightContain(5));
+        assertEquals(2, employeeIdFilter.size());
+    }
+
+    @Test
+    void testReloadPicksUpChangesOfOtherInstances() {
+        employeeIdFilter.load();
+        employeeIdFilter.load();
+        jdbcTemplate.update("DELETE FROM employee WHERE id = 2");
+        jdbcTemplate.update("INSERT INTO employee (id) VALUES (3)");
+
+        employeeIdFilter.load();
+
+        assertFalse(employeeIdFilter.mightContain(2));
+        assertTrue(employeeIdFilter.mightContain(3));
+    }
+}
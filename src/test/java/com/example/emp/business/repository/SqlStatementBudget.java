@@ -0,0 +1,20 @@
+package com.example.emp.business.repository;
+
+import org.junit.jupiter.api.function.Executable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts the number of SQL statements an action runs, so an added lazy load or N+1 query fails the build.
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    public static void assertStatements(SqlStatementCounter counter, int expected, Executable action) throws Throwable {
+        counter.reset();
+        action.execute();
+        assertEquals(expected, counter.count(), () -> "Unexpected SQL statements: " + counter.statements());
+    }
+}
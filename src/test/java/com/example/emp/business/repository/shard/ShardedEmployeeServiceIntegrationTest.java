@@ -0,0 +1,165 @@
+package com.example.emp.business.repository.shard;
+
+import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.service.EmployeeService;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "emp.sharding.shards[0].url=jdbc:h2:mem:emp-shard-0;DB_CLOSE_DELAY=-1",
+        "emp.sharding.shards[0].username=sa",
+        "emp.sharding.shards[1].url=jdbc:h2:mem:emp-shard-1;DB_CLOSE_DELAY=-1",
+        "emp.sharding.shards[1].username=sa",
+        "emp.sharding.shards[2].url=jdbc:h2:mem:emp-shard-2;DB_CLOSE_DELAY=-1",
+        "emp.sharding.shards[2].username=sa",
+        "emp.sharding.merge-buffer-rows=2",
+        "spring.jpa.open-in-view=false",
+        "emp.reactive.enabled=false",
+        "emp.coalescing.enabled=false",
+        "emp.export.cache.enabled=false"})
+@ActiveProfiles("embedded")
+public class ShardedEmployeeServiceIntegrationTest {
+
+    // on shards 1, 0 and 2
+    private static final List<String> DEPARTMENTS = List.of("Engineering", "Sales", "Finance");
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeShards employeeShards;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @BeforeEach
+    public void setUp() {
+        for (int shard = 0; shard < shardRoutingDataSource.getShardCount(); shard++) {
+            JdbcTemplate jdbcTemplate = shard(shard);
+            jdbcTemplate.update("DELETE FROM employee");
+            jdbcTemplate.update("DELETE FROM employee_archive");
+        }
+    }
+
+    @Test
+    public void testEmployeesAreStoredOnTheShardOfTheirDepartment() {
+        for (String department : DEPARTMENTS) {
+            Employee employee = add("John Doe", department, 2020);
+
+            int shard = employeeShards.shardOf(department);
+            assertEquals(shard, employeeShards.shardOfId(employee.getId()));
+            assertEquals(1, shard(shard).queryForObject("SELECT COUNT(*) FROM employee WHERE id = ?", Integer.class, employee.getId()));
+        }
+        assertEquals(3, DEPARTMENTS.stream().map(employeeShards::shardOf).distinct().count());
+    }
+
+    @Test
+    public void testLookupsByIdGoToTheShardOfTheId() {
+        List<Employee> employees = DEPARTMENTS.stream().map(department -> add("Jane " + department, department, 2021)).toList();
+
+        for (Employee employee : employees) {
+            assertEquals(employee.getName(), employeeService.getEmployeeById(employee.getId()).getName());
+            assertTrue(employeeService.existsById(employee.getId()));
+        }
+    }
+
+    @Test
+    public void testQueriesGatherAllShards() {
+        DEPARTMENTS.forEach(department -> add("Jack Doe", department, 2020));
+        add("Jill Doe", "Finance", 2022);
+
+        assertEquals(4, employeeService.getEmployees(EmployeeQuery.of(null, null)).size());
+        assertEquals(2, employeeService.getEmployees(EmployeeQuery.of("Finance", null)).size());
+        assertEquals(4, employeeService.countEmployees(EmployeeQuery.of(null, null)));
+        assertEquals(1, employeeService.countEmployees(EmployeeQuery.of(null, LocalDate.of(2021, 1, 1))));
+        assertTrue(employeeService.existsEmployees(EmployeeQuery.of("Sales", null)));
+        assertFalse(employeeService.existsEmployees(EmployeeQuery.of("Legal", null)));
+    }
+
+    @Test
+    public void testSortedQueryIsMergedAcrossShards() {
+        add("Dora", "Engineering", 2020);
+        add("Anna", "Sales", 2020);
+        add("Carl", "Finance", 2020);
+        add("Bert", "Engineering", 2020);
+        add("Emil", "Sales", 2020);
+
+        List<Employee> employees = employeeService.getEmployees(EmployeeQuery.parse(null, null, null, null, "name", "name", 4));
+
+        assertEquals(List.of("Anna", "Bert", "Carl", "Dora"), employees.stream().map(Employee::getName).collect(Collectors.toList()));
+        assertNull(employees.get(0).getId());
+        assertNull(employees.get(0).getDepartment());
+    }
+
+    @Test
+    public void testStreamMergesTheCursorsOfAllShards() {
+        for (int i = 0; i < 10; i++) {
+            add(String.format("Employee %02d", i), DEPARTMENTS.get(i % DEPARTMENTS.size()), 2020);
+        }
+        List<String> names = new ArrayList<>();
+
+        employeeRepository.streamEmployees(EmployeeQuery.parse(null, null, null, null, "name", "-name", 7), 3,
+                employee -> names.add(employee.getName()));
+
+        assertEquals(IntStream.range(3, 10).map(i -> 12 - i).mapToObj(i -> String.format("Employee %02d", i)).toList(), names);
+    }
+
+    @Test
+    public void testArchiveAcrossShards() {
+        List<Long> ids = DEPARTMENTS.stream().map(department -> add("Jim Doe", department, 2020).getId()).toList();
+
+        assertEquals(3, employeeService.archiveEmployees(ids));
+
+        assertEquals(0, employeeService.countEmployees(EmployeeQuery.of(null, null)));
+        assertEquals(3, employeeService.getEmployees(EmployeeQuery.builder().includeArchived(true).build()).size());
+        for (Long id : ids) {
+            assertEquals("Jim Doe", employeeService.getEmployeeById(id, true).getName());
+        }
+    }
+
+    @Test
+    public void testParallelCsvExportIsOrderedById() throws Exception {
+        DEPARTMENTS.forEach(department -> add("Joe Doe", department, 2020));
+        add("Joy Doe", "Engineering", 2021);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(employeeService.exportToCSVParallel(EmployeeQuery.of(null, null), response));
+
+        List<Long> exportedIds = Arrays.stream(response.getContentAsString().split("\n"))
+                .skip(1)
+                .map(line -> Long.parseLong(line.substring(1, line.indexOf('"', 1))))
+                .toList();
+        assertEquals(4, exportedIds.size());
+        assertEquals(exportedIds.stream().sorted().toList(), exportedIds);
+    }
+
+    private Employee add(String name, String department, int year) {
+        return employeeService.addEmployee(new Employee(null, name, department, LocalDate.of(year, 1, 1)));
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(shardRoutingDataSource.getShard(shard));
+    }
+}
@@ -2,10 +2,14 @@ package com.example.emp.business.service.impl;
 
 import com.example.emp.business.handlers.EmployeeNotFoundException;
 import com.example.emp.business.handlers.ExportException;
+import com.example.emp.business.repository.DepartmentDictionary;
 import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.SqlStatementCounter;
 import com.example.emp.business.repository.model.EmployeeDAO;
 import com.example.emp.business.service.EmployeeService;
 import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -14,6 +18,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 
@@ -23,12 +29,17 @@ import java.io.PrintWriter;
 import java.io.ByteArrayInputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
+import static com.example.emp.business.repository.SqlStatementBudget.assertStatements;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -45,9 +56,22 @@ public class EmployeeServiceImplIntegrationTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
     @BeforeEach
     public void setUp() {
         employeeRepository.deleteAll();
+        // deletes of other tests archive their employees
+        jdbcTemplate.update("DELETE FROM employee_archive");
+        // employees saved through the repository need their departments in the dictionary
+        List.of("Engineering", "HR", "Sales").forEach(departmentDictionary::register);
     }
 
     @Test
@@ -113,6 +137,79 @@ public class EmployeeServiceImplIntegrationTest {
         assertEquals("Jack Doe", employees.get(0).getName());
     }
 
+    @Test
+    public void testGetEmployeesWithSelectedFields() {
+        employeeRepository.save(new EmployeeDAO(1L, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(2L, "Jane Doe", "HR", LocalDate.of(2021, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(3L, "Jack Doe", "Engineering", LocalDate.of(2021, 1, 1)));
+
+        List<Employee> employees = employeeService.getEmployees(EmployeeQuery.builder()
+                .departments(Set.of("Engineering"))
+                .yearOfEmploymentAfter(LocalDate.of(2020, 1, 1))
+                .fields(EnumSet.of(EmployeeField.ID, EmployeeField.NAME))
+                .build());
+
+        assertEquals(1, employees.size());
+        assertNotNull(employees.get(0).getId());
+        assertEquals("Jack Doe", employees.get(0).getName());
+        assertNull(employees.get(0).getDepartment());
+        assertNull(employees.get(0).getYearOfEmployment());
+    }
+
+    @Test
+    public void testGetEmployeesOfSeveralDepartmentsInDateRange() {
+        employeeRepository.save(new EmployeeDAO(1L, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(2L, "Jane Doe", "HR", LocalDate.of(2021, 6, 1)));
+        employeeRepository.save(new EmployeeDAO(3L, "Jack Doe", "Engineering", LocalDate.of(2021, 12, 31)));
+        employeeRepository.save(new EmployeeDAO(4L, "Jill Doe", "Sales", LocalDate.of(2021, 3, 1)));
+        employeeRepository.save(new EmployeeDAO(5L, "Joe Doe", "HR", LocalDate.of(2022, 1, 1)));
+
+        List<Employee> employees = employeeService.getEmployees(EmployeeQuery.parse(List.of("Engineering", "HR"), null,
+                LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31), null, "name", null));
+
+        assertEquals(List.of("Jack Doe", "Jane Doe"), employees.stream().map(Employee::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testCountAndExistsEmployees() {
+        employeeRepository.save(new EmployeeDAO(1L, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(2L, "Jane Doe", "HR", LocalDate.of(2021, 6, 1)));
+        employeeRepository.save(new EmployeeDAO(3L, "Jack Doe", "Engineering", LocalDate.of(2021, 12, 31)));
+
+        assertEquals(3, employeeService.countEmployees(EmployeeQuery.of(null, null)));
+        assertEquals(1, employeeService.countEmployees(EmployeeQuery.of("Engineering", LocalDate.of(2020, 1, 1))));
+        assertTrue(employeeService.existsEmployees(EmployeeQuery.of("HR", null)));
+        assertFalse(employeeService.existsEmployees(EmployeeQuery.of("Sales", null)));
+    }
+
+    @Test
+    public void testGetEmployeesSortedWithLimit() {
+        employeeRepository.save(new EmployeeDAO(1L, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(2L, "Jane Doe", "HR", LocalDate.of(2022, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(3L, "Jack Doe", "Engineering", LocalDate.of(2021, 1, 1)));
+
+        List<Employee> employees = employeeService.getEmployees(
+                EmployeeQuery.parse(null, null, null, null, null, "-yearOfEmployment", 2));
+
+        assertEquals(2, employees.size());
+        assertEquals("Jane Doe", employees.get(0).getName());
+        assertEquals("Jack Doe", employees.get(1).getName());
+    }
+
+    @Test
+    public void testTiesAreBrokenByIdInTheDirectionOfTheLastSort() {
+        Long first = employeeRepository.save(new EmployeeDAO(null, "John Doe", "Engineering", LocalDate.of(2021, 1, 1))).getId();
+        Long second = employeeRepository.save(new EmployeeDAO(null, "Jane Doe", "HR", LocalDate.of(2021, 1, 1))).getId();
+
+        List<Employee> descending = employeeService.getEmployees(
+                EmployeeQuery.parse(null, null, null, null, null, "-yearOfEmployment", null));
+        List<Employee> ascending = employeeService.getEmployees(
+                EmployeeQuery.parse(null, null, null, null, null, "yearOfEmployment", null));
+
+        assertEquals(List.of(second, first), descending.stream().map(Employee::getId).toList());
+        assertEquals(List.of(first, second), ascending.stream().map(Employee::getId).toList());
+    }
+
     @Test
     public void testGetEmployeesWithNoFilters() {
         employeeRepository.save(new EmployeeDAO(1L, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
@@ -153,6 +250,43 @@ public class EmployeeServiceImplIntegrationTest {
         assertEquals(false, employeeRepository.existsById(1L));
     }
 
+    @Test
+    public void testArchivedEmployeesAreOnlyReturnedWhenRequested() {
+        EmployeeDAO leaver = employeeRepository.save(new EmployeeDAO(null, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(null, "Jane Doe", "Engineering", LocalDate.of(2021, 1, 1)));
+
+        assertEquals(1, employeeService.archiveEmployees(List.of(leaver.getId())));
+
+        EmployeeQuery query = EmployeeQuery.of("Engineering", null);
+        assertEquals(List.of("Jane Doe"), employeeService.getEmployees(query).stream().map(Employee::getName).collect(Collectors.toList()));
+        assertEquals(List.of("Jane Doe", "John Doe"), employeeService.getEmployees(query.toBuilder().includeArchived(true).build()).stream()
+                .map(Employee::getName).collect(Collectors.toList()));
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.getEmployeeById(leaver.getId()));
+        assertEquals("John Doe", employeeService.getEmployeeById(leaver.getId(), true).getName());
+    }
+
+    @Test
+    public void testDepartmentsAreStoredByKeyAndSortedByName() {
+        employeeService.addEmployee(new Employee(null, "John Doe", "Zoology", LocalDate.of(2020, 1, 1)));
+        employeeService.addEmployee(new Employee(null, "Jane Doe", "Archives", LocalDate.of(2020, 1, 1)));
+
+        List<Employee> employees = employeeService.getEmployees(EmployeeQuery.builder().sort(Sort.by("department")).build());
+
+        assertEquals(List.of("Archives", "Zoology"), employees.stream().map(Employee::getDepartment).collect(Collectors.toList()));
+        assertSame(departmentDictionary.name(departmentDictionary.find("Zoology").orElseThrow()), employees.get(1).getDepartment());
+        assertEquals(0, employeeService.getEmployees("Nonexistent", null).size());
+        assertTrue(departmentDictionary.find("Nonexistent").isEmpty());
+    }
+
+    @Test
+    public void testSavingAnUnregisteredDepartmentFails() {
+        EmployeeDAO employeeDAO = new EmployeeDAO(null, "John Doe", "Unregistered", LocalDate.of(2020, 1, 1));
+
+        // the converter only looks keys up, adding departments is left to the write paths
+        assertThrows(RuntimeException.class, () -> employeeRepository.save(employeeDAO));
+        assertTrue(departmentDictionary.find("Unregistered").isEmpty());
+    }
+
     @Test
     public void testDeleteNonexistentEmployee() {
 
@@ -189,6 +323,56 @@ public class EmployeeServiceImplIntegrationTest {
         assertTrue(output.contains("\"2\",\"Jane Doe\",\"HR\",\"2021-01-01\""), "CSV data for Jane Doe is missing or incorrect.");
     }
 
+    @Test
+    public void testExportQueryToCSVStreamsTheRows() throws Exception {
+        employeeRepository.save(new EmployeeDAO(null, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(null, "Jane Doe", "HR", LocalDate.of(2021, 1, 1)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(employeeService.exportToCSV(EmployeeQuery.builder().sort(Sort.by("name")).build(), response));
+
+        assertEquals("text/csv", response.getContentType());
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].contains("\"Jane Doe\",\"HR\""));
+        assertTrue(lines[2].contains("\"John Doe\",\"Engineering\""));
+    }
+
+    @Test
+    public void testExportQueryWithoutRowsLeavesTheResponseUntouched() throws Exception {
+        employeeRepository.save(new EmployeeDAO(null, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        MockHttpServletResponse csv = new MockHttpServletResponse();
+        MockHttpServletResponse xlsx = new MockHttpServletResponse();
+
+        assertFalse(employeeService.exportToCSV(EmployeeQuery.of("HR", null), csv));
+        assertFalse(employeeService.exportToExcel(EmployeeQuery.of("HR", null), xlsx));
+
+        // the caller can still answer 204 with a body of its own
+        assertNull(csv.getContentType());
+        assertEquals(0, csv.getContentAsByteArray().length);
+        csv.getOutputStream();
+        assertNull(xlsx.getContentType());
+        assertEquals(0, xlsx.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testExportQueryToExcelStreamsTheRows() throws Exception {
+        employeeRepository.save(new EmployeeDAO(null, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        employeeRepository.save(new EmployeeDAO(null, "Jane Doe", "HR", LocalDate.of(2021, 1, 1)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(employeeService.exportToExcel(EmployeeQuery.builder()
+                .fields(EnumSet.of(EmployeeField.NAME)).sort(Sort.by("name")).build(), response));
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("Name", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Jane Doe", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("John Doe", sheet.getRow(2).getCell(0).getStringCellValue());
+            assertNull(sheet.getRow(3));
+        }
+    }
+
     @Test
     public void testExportToCSVFailure() throws IOException {
         List<Employee> employees = Arrays.asList(
@@ -250,4 +434,21 @@ public class EmployeeServiceImplIntegrationTest {
         }
     }
 
+    @Test
+    public void testQueryBudgets() throws Throwable {
+        EmployeeDAO employeeDAO = employeeRepository.save(new EmployeeDAO(null, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        EmployeeQuery query = EmployeeQuery.of("Engineering", null);
+
+        assertStatements(sqlStatementCounter, 1, () -> employeeService.getEmployeeById(employeeDAO.getId()));
+        assertStatements(sqlStatementCounter, 1, () -> employeeService.getEmployees(query));
+        assertStatements(sqlStatementCounter, 1, () -> employeeService.countEmployees(query));
+        assertStatements(sqlStatementCounter, 1, () -> employeeService.existsEmployees(query));
+        assertStatements(sqlStatementCounter, 1, () -> employeeService.addEmployee(new Employee(null, "Jane Doe", "Engineering", LocalDate.of(2021, 1, 1))));
+        // the cursor of the export, the first row decides whether there is anything to export
+        assertStatements(sqlStatementCounter, 1, () -> employeeService.exportToCSV(query, new MockHttpServletResponse()));
+        // id range, then the chunk read by an export worker
+        assertStatements(sqlStatementCounter, 2, () -> employeeService.exportToCSVParallel(query, new MockHttpServletResponse()));
+        // load of the leaver, copy into the archive and delete
+        assertStatements(sqlStatementCounter, 3, () -> employeeService.deleteEmployee(employeeDAO.getId()));
+    }
 }
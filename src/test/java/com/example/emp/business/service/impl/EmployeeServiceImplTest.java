@@ -1,11 +1,23 @@
 package com.example.emp.business.service.impl;
 
+import com.example.emp.business.events.EmployeeEventHub;
+import com.example.emp.business.events.EmployeeEventType;
+import com.example.emp.business.export.ExportCache;
+import com.example.emp.business.export.ParallelCsvExporter;
+import com.example.emp.business.export.PartitionedExcelExporter;
 import com.example.emp.business.handlers.EmployeeNotFoundException;
 import com.example.emp.business.handlers.ExportException;
 import com.example.emp.business.mappers.EmployeeMapStructMapper;
+import com.example.emp.business.repository.DepartmentDictionary;
+import com.example.emp.business.repository.EmployeeGroupCommitter;
+import com.example.emp.business.repository.EmployeeIdFilter;
 import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.shard.EmployeeShards;
 import com.example.emp.business.repository.model.EmployeeDAO;
+import com.example.emp.business.repository.model.IdRange;
 import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -16,17 +28,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -37,13 +55,14 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 
 
 @SpringBootTest
@@ -56,6 +75,31 @@ public class EmployeeServiceImplTest {
     @Mock
     private EmployeeMapStructMapper employeeMapStructMapper;
 
+    @Mock
+    private EmployeeEventHub employeeEventHub;
+
+    @Mock
+    private PartitionedExcelExporter partitionedExcelExporter;
+
+    @Mock
+    private ParallelCsvExporter parallelCsvExporter;
+
+    @Mock
+    private ExportCache exportCache;
+
+    @Mock
+    private EmployeeGroupCommitter employeeGroupCommitter;
+
+    @Mock
+    private EmployeeIdFilter employeeIdFilter;
+
+    @Mock
+    private DepartmentDictionary departmentDictionary;
+
+    // not sharded, everything runs on the calling thread
+    @Spy
+    private EmployeeShards employeeShards = new EmployeeShards();
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -65,6 +109,7 @@ public class EmployeeServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(employeeIdFilter.mightContain(anyLong())).thenReturn(true);
 
         employeeDAO = new EmployeeDAO();
         employeeDAO.setId(1L);
@@ -107,7 +152,7 @@ public class EmployeeServiceImplTest {
     @Test
     void testGetEmployees_WithFilters() {
         List<EmployeeDAO> employeeDAOs = Arrays.asList(employeeDAO);
-        when(employeeRepository.findByDepartmentAndYearOfEmploymentAfter(anyString(), any(LocalDate.class))).thenReturn(employeeDAOs);
+        when(employeeRepository.findEmployees(any(EmployeeQuery.class))).thenReturn(employeeDAOs);
         when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenReturn(employee);
 
         List<Employee> result = employeeService.getEmployees("IT", LocalDate.of(2019, 1, 1));
@@ -115,46 +160,69 @@ public class EmployeeServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(employee.getId(), result.get(0).getId());
-        verify(employeeRepository, times(1)).findByDepartmentAndYearOfEmploymentAfter("IT", LocalDate.of(2019, 1, 1));
+        verify(employeeRepository, times(1)).findEmployees(EmployeeQuery.of("IT", LocalDate.of(2019, 1, 1)));
     }
 
     @Test
-    void testGetEmployees_WithDepartmentOnly() {
-        List<EmployeeDAO> employeeDAOs = Arrays.asList(employeeDAO);
-        when(employeeRepository.findByDepartment(anyString())).thenReturn(employeeDAOs);
+    void testGetEmployees_WithDepartmentsAndDateRange() {
+        EmployeeQuery query = EmployeeQuery.builder()
+                .departments(Set.of("IT", "HR"))
+                .yearOfEmploymentFrom(LocalDate.of(2020, 1, 1))
+                .yearOfEmploymentTo(LocalDate.of(2020, 12, 31))
+                .build();
+        when(employeeRepository.findEmployees(query)).thenReturn(List.of(employeeDAO));
         when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenReturn(employee);
 
-        List<Employee> result = employeeService.getEmployees("IT", null);
+        List<Employee> result = employeeService.getEmployees(query);
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(employee.getId(), result.get(0).getId());
-        verify(employeeRepository, times(1)).findByDepartment("IT");
+        assertEquals(List.of(employee), result);
+        verify(employeeRepository, times(1)).findEmployees(query);
     }
 
     @Test
-    void testGetEmployees_WithYearOnly() {
-        List<EmployeeDAO> employeeDAOs = Arrays.asList(employeeDAO);
-        when(employeeRepository.findByYearOfEmploymentAfter(any(LocalDate.class))).thenReturn(employeeDAOs);
-        when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenReturn(employee);
+    void testGetEmployees_EmptyRepository() {
+        when(employeeRepository.findEmployees(any(EmployeeQuery.class))).thenReturn(Collections.emptyList());
 
-        List<Employee> result = employeeService.getEmployees(null, LocalDate.of(2020, 1, 1));
+        List<Employee> result = employeeService.getEmployees(null, null);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(employee.getId(), result.get(0).getId());
-        verify(employeeRepository, times(1)).findByYearOfEmploymentAfter(LocalDate.of(2020, 1, 1));
+        assertTrue(result.isEmpty());
+        verify(employeeRepository, times(1)).findEmployees(EmployeeQuery.of(null, null));
     }
 
     @Test
-    void testGetEmployees_EmptyRepository() {
-        when(employeeRepository.findAll()).thenReturn(Collections.emptyList());
+    void testGetEmployees_WithSelectedFields() {
+        Set<EmployeeField> fields = EnumSet.of(EmployeeField.ID, EmployeeField.NAME);
+        EmployeeDAO partialDAO = new EmployeeDAO(1L, "John Doe", null, null);
+        Employee partial = new Employee(1L, "John Doe", null, null);
+        EmployeeQuery query = EmployeeQuery.builder().departments(Set.of("IT")).fields(fields).build();
+        when(employeeRepository.findEmployees(query)).thenReturn(List.of(partialDAO));
+        when(employeeMapStructMapper.employeeDAOToEmployee(partialDAO)).thenReturn(partial);
 
-        List<Employee> result = employeeService.getEmployees(null, null);
+        List<Employee> result = employeeService.getEmployees(query);
 
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(employeeRepository, times(1)).findAll();
+        assertEquals(List.of(partial), result);
+    }
+
+    @Test
+    void testGetEmployees_WithSortAndLimit() {
+        EmployeeQuery query = EmployeeQuery.builder().sort(Sort.by(Sort.Order.desc("yearOfEmployment"))).limit(100).build();
+        when(employeeRepository.findEmployees(query)).thenReturn(List.of(employeeDAO));
+        when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenReturn(employee);
+
+        List<Employee> result = employeeService.getEmployees(query);
+
+        assertEquals(List.of(employee), result);
+        verify(employeeRepository, times(1)).findEmployees(query);
+    }
+
+    @Test
+    void testCountEmployees_IsCappedByLimit() {
+        when(employeeRepository.countEmployees(any(EmployeeQuery.class))).thenReturn(250L);
+
+        assertEquals(250L, employeeService.countEmployees(EmployeeQuery.of("IT", null)));
+        assertEquals(100L, employeeService.countEmployees(EmployeeQuery.builder().limit(100).build()));
+        verify(employeeRepository, never()).findEmployees(any());
     }
 
     @Test
@@ -168,15 +236,69 @@ public class EmployeeServiceImplTest {
         assertNotNull(result);
         assertEquals(employee.getId(), result.getId());
         verify(employeeRepository, times(1)).save(employeeDAO);
+        verify(employeeIdFilter, times(1)).add(1L);
+        verify(employeeEventHub, times(1)).publish(EmployeeEventType.CREATED, employee);
+        verify(exportCache, times(1)).invalidate(employeeDAO.getDepartment());
+    }
+
+    @Test
+    void testAddEmployeeWithGroupCommit() {
+        when(employeeGroupCommitter.isEnabled()).thenReturn(true);
+        when(employeeMapStructMapper.employeeToEmployeeDAO(any(Employee.class))).thenReturn(employeeDAO);
+        when(employeeGroupCommitter.save(employeeDAO)).thenReturn(employeeDAO);
+        when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenReturn(employee);
+
+        Employee result = employeeService.addEmployee(employee);
+
+        assertEquals(employee.getId(), result.getId());
+        verify(employeeRepository, never()).save(any(EmployeeDAO.class));
+        verify(employeeEventHub, times(1)).publish(EmployeeEventType.CREATED, employee);
+        verify(exportCache, times(1)).invalidate(employeeDAO.getDepartment());
     }
 
     @Test
     void testDeleteEmployee() {
-        doNothing().when(employeeRepository).deleteById(anyLong());
+        when(employeeRepository.findAllById(List.of(1L))).thenReturn(List.of(employeeDAO));
+        when(employeeRepository.archiveEmployees(List.of(employeeDAO.getId()))).thenReturn(1);
+        when(employeeMapStructMapper.employeeDAOToEmployee(any(EmployeeDAO.class))).thenReturn(employee);
+
+        employeeService.deleteEmployee(1L);
+
+        verify(employeeRepository, times(1)).archiveEmployees(List.of(employeeDAO.getId()));
+        verify(employeeRepository, never()).delete(any(EmployeeDAO.class));
+        verify(employeeIdFilter, times(1)).removeAll(List.of(1L));
+        verify(employeeEventHub, times(1)).publish(EmployeeEventType.DELETED, employee);
+        verify(exportCache, times(1)).invalidate(employeeDAO.getDepartment());
+    }
+
+    @Test
+    void testDeleteEmployee_NotFound() {
+        when(employeeRepository.findAllById(List.of(1L))).thenReturn(List.of());
 
         employeeService.deleteEmployee(1L);
 
-        verify(employeeRepository, times(1)).deleteById(1L);
+        verify(employeeRepository, never()).archiveEmployees(any());
+        verify(employeeEventHub, never()).publish(any(), any());
+        verify(exportCache, never()).invalidate(any());
+    }
+
+    @Test
+    void testGetEmployeeById_DefiniteMissSkipsDatabase() {
+        when(employeeIdFilter.mightContain(999L)).thenReturn(false);
+
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.getEmployeeById(999L));
+        assertFalse(employeeService.existsById(999L));
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(employeeRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void testGetEmployeeById_FallsBackToArchive() {
+        when(employeeRepository.findById(1L)).thenReturn(Optional.empty());
+        when(employeeRepository.findArchivedEmployee(1L)).thenReturn(Optional.of(employeeDAO));
+        when(employeeMapStructMapper.employeeDAOToEmployee(employeeDAO)).thenReturn(employee);
+
+        assertEquals(employee, employeeService.getEmployeeById(1L, true));
     }
 
     @Test
@@ -205,6 +327,18 @@ public class EmployeeServiceImplTest {
         assertEquals("attachment; filename=employees.csv", response.getHeader("Content-Disposition"));
     }
 
+    @Test
+    void testExportToCSV_SelectedFields() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        employeeService.exportToCSV(List.of(new Employee(1L, "John Doe", null, null)),
+                EnumSet.of(EmployeeField.ID, EmployeeField.NAME), response);
+
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals("\"ID\",\"Name\"", lines[0]);
+        assertEquals("\"1\",\"John Doe\"", lines[1]);
+    }
+
     @Test
     void testExportToCSV_EmptyList() throws Exception {
         MockHttpServletResponse response = new MockHttpServletResponse();
@@ -263,6 +397,22 @@ public class EmployeeServiceImplTest {
         assertEquals("attachment; filename=employees.xlsx", response.getHeader("Content-Disposition"), "The content-disposition header should be 'attachment; filename=employees.xlsx'.");
     }
 
+    @Test
+    void testExportToExcel_SelectedFields() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        employeeService.exportToExcel(List.of(employee), EnumSet.of(EmployeeField.NAME, EmployeeField.YEAR_OF_EMPLOYMENT), response);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            Sheet sheet = workbook.getSheet("Employees");
+            assertEquals(2, sheet.getRow(0).getLastCellNum());
+            assertEquals("Name", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("YearOfEmployment", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals("John Doe", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("2020-01-01", sheet.getRow(1).getCell(1).getStringCellValue());
+        }
+    }
+
     @Test
     void testExportToExcel_IOException() throws IOException {
 
@@ -277,4 +427,50 @@ public class EmployeeServiceImplTest {
             assert e.getCause() instanceof IOException;
         }
     }
+
+    @Test
+    void testExportToExcelByDepartment() throws Exception {
+        EmployeeQuery query = EmployeeQuery.of(null, null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(partitionedExcelExporter.findDepartments(query)).thenReturn(List.of("HR", "IT"));
+
+        assertTrue(employeeService.exportToExcelByDepartment(query, response));
+
+        verify(partitionedExcelExporter).export(eq(query), eq(List.of("HR", "IT")), any(OutputStream.class));
+        assertEquals("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", response.getContentType());
+        assertEquals("attachment; filename=employees.xlsx", response.getHeader("Content-Disposition"));
+    }
+
+    @Test
+    void testExportToExcelByDepartment_NoDepartments() throws Exception {
+        EmployeeQuery query = EmployeeQuery.of("Nonexistent", null);
+        when(partitionedExcelExporter.findDepartments(query)).thenReturn(Collections.emptyList());
+
+        assertFalse(employeeService.exportToExcelByDepartment(query, new MockHttpServletResponse()));
+
+        verify(partitionedExcelExporter, never()).export(any(), any(), any());
+    }
+
+    @Test
+    void testExportToCSVParallel() throws Exception {
+        EmployeeQuery query = EmployeeQuery.of("IT", null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(parallelCsvExporter.findIdRange(query)).thenReturn(Optional.of(new IdRange(1, 10)));
+
+        assertTrue(employeeService.exportToCSVParallel(query, response));
+
+        verify(parallelCsvExporter).export(eq(query), eq(new IdRange(1, 10)), any(Writer.class));
+        assertEquals("text/csv", response.getContentType());
+        assertEquals("attachment; filename=employees.csv", response.getHeader("Content-Disposition"));
+    }
+
+    @Test
+    void testExportToCSVParallel_NoEmployees() throws Exception {
+        EmployeeQuery query = EmployeeQuery.of("Nonexistent", null);
+        when(parallelCsvExporter.findIdRange(query)).thenReturn(Optional.empty());
+
+        assertFalse(employeeService.exportToCSVParallel(query, new MockHttpServletResponse()));
+
+        verify(parallelCsvExporter, never()).export(any(), any(), any(Writer.class));
+    }
 }
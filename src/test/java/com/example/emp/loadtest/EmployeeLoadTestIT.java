@@ -0,0 +1,206 @@
+package com.example.emp.loadtest;
+
+import com.example.emp.business.repository.DepartmentDictionary;
+import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.model.EmployeeDAO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the full HTTP stack at a fixed arrival rate and checks latency and error thresholds.
+ * Latency is measured from the scheduled send time, so a stalled server is not hidden by a
+ * client that waits before sending the next request. Rejected requests (503) are left out of the
+ * latencies and the throughput, which only counts 2xx, 3xx and 4xx responses. All settings are system properties:
+ * <ul>
+ *     <li>{@code loadtest.rps}, {@code loadtest.duration-seconds}, {@code loadtest.warmup-seconds}</li>
+ *     <li>{@code loadtest.mix} - weighted endpoint mix, or {@code loadtest.recording} - request log to replay</li>
+ *     <li>{@code loadtest.seed-employees} - rows inserted before the run</li>
+ *     <li>{@code loadtest.max-p99-ms.<endpoint>}, {@code loadtest.max-p99-ms}, {@code loadtest.max-error-rate},
+ *     {@code loadtest.max-rejected-rate}, {@code loadtest.min-throughput-ratio} - regression thresholds</li>
+ * </ul>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("embedded")
+public class EmployeeLoadTestIT {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
+    private final ConcurrentLinkedQueue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong missingId = new AtomicLong(Long.MAX_VALUE / 2);
+
+    @BeforeEach
+    public void setUp() {
+        employeeRepository.deleteAll();
+        int seedEmployees = Integer.getInteger("loadtest.seed-employees", 1000);
+        String[] departments = {"Engineering", "HR", "Finance", "Digital", "Sales"};
+        Arrays.stream(departments).forEach(departmentDictionary::register);
+        List<EmployeeDAO> employees = new ArrayList<>();
+        for (int i = 0; i < seedEmployees; i++) {
+            employees.add(new EmployeeDAO(null, "Seeded Employee", departments[i % departments.length],
+                    LocalDate.of(2005 + i % 19, 1 + i % 12, 1)));
+        }
+        employeeRepository.saveAll(employees).forEach(employee -> deletableIds.add(employee.getId()));
+    }
+
+    @Test
+    public void runLoadTest() throws Exception {
+        int rps = Integer.getInteger("loadtest.rps", 200);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+        String recording = System.getProperty("loadtest.recording");
+        TrafficMix trafficMix = recording != null
+                ? TrafficMix.recorded(Path.of(recording))
+                : TrafficMix.synthetic(System.getProperty("loadtest.mix", "list=50,listFiltered=30,create=10,delete=5,export=5"), 42);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        run(client, trafficMix, rps, warmupSeconds, new LatencyRecorder());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long startedAt = System.nanoTime();
+        long sent = run(client, trafficMix, rps, durationSeconds, recorder);
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+
+        report(recorder, sent, elapsedSeconds);
+        checkThresholds(recorder, rps, elapsedSeconds);
+    }
+
+    private long run(HttpClient client, TrafficMix trafficMix, int rps, int seconds, LatencyRecorder recorder) throws Exception {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long total = (long) rps * seconds;
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        for (long i = 0; i < total; i++) {
+            long scheduledAt = startedAt + i * intervalNanos;
+            long waitNanos = scheduledAt - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+            TrafficMix.PlannedRequest planned = trafficMix.next(this::nextDeletableId);
+            inFlight.add(client.sendAsync(toHttpRequest(planned), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledAt);
+                        if (error != null) {
+                            recorder.recordFailure(planned.endpoint());
+                            return;
+                        }
+                        recorder.record(planned.endpoint(), latencyMicros, response.statusCode());
+                        if (response.statusCode() == 201) {
+                            rememberCreatedId(response.body());
+                        }
+                    }));
+            inFlight.removeIf(CompletableFuture::isDone);
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0]))
+                .handle((ignored, error) -> null)
+                .get(1, TimeUnit.MINUTES);
+        return total;
+    }
+
+    private HttpRequest toHttpRequest(TrafficMix.PlannedRequest planned) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + planned.path()))
+                .timeout(Duration.ofSeconds(30));
+        if (planned.body() != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(planned.method(), HttpRequest.BodyPublishers.ofString(planned.body()));
+        } else {
+            builder.method(planned.method(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    private long nextDeletableId() {
+        Long id = deletableIds.poll();
+        return id != null ? id : missingId.incrementAndGet();
+    }
+
+    private void rememberCreatedId(String body) {
+        try {
+            JsonNode created = objectMapper.readTree(body);
+            if (created.hasNonNull("id")) {
+                deletableIds.add(created.get("id").asLong());
+            }
+        } catch (Exception e) {
+            // not every 201 body has to be an employee; nothing to remember then
+        }
+    }
+
+    private void report(LatencyRecorder recorder, long sent, double elapsedSeconds) {
+        long handled = recorder.snapshot().values().stream().mapToLong(LatencyRecorder.EndpointStats::getHandled).sum();
+        System.out.printf("%nLoad test: %d requests sent, %d handled in %.1f s (%.1f req/s)%n",
+                sent, handled, elapsedSeconds, handled / elapsedSeconds);
+        System.out.printf("%-14s %9s %9s %9s %9s %9s %8s %8s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors", "503s");
+        for (Map.Entry<String, LatencyRecorder.EndpointStats> entry : recorder.snapshot().entrySet()) {
+            LatencyRecorder.EndpointStats stats = entry.getValue();
+            System.out.printf("%-14s %9d %9.1f %9.2f %9.2f %9.2f %8d %8d%n", entry.getKey(), stats.getCount(),
+                    stats.getHandled() / elapsedSeconds,
+                    stats.percentileMicros(50) / 1000.0, stats.percentileMicros(99) / 1000.0,
+                    stats.percentileMicros(99.9) / 1000.0, stats.getErrors(), stats.getRejected());
+        }
+    }
+
+    private void checkThresholds(LatencyRecorder recorder, int rps, double elapsedSeconds) {
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+        double maxRejectedRate = Double.parseDouble(System.getProperty("loadtest.max-rejected-rate", "0.01"));
+        double minThroughputRatio = Double.parseDouble(System.getProperty("loadtest.min-throughput-ratio", "0.9"));
+        List<String> violations = new ArrayList<>();
+
+        long handled = recorder.snapshot().values().stream().mapToLong(LatencyRecorder.EndpointStats::getHandled).sum();
+        double throughput = handled / elapsedSeconds;
+        if (throughput < rps * minThroughputRatio) {
+            violations.add(String.format("throughput %.1f req/s is below %.0f%% of the %d req/s target",
+                    throughput, minThroughputRatio * 100, rps));
+        }
+        for (Map.Entry<String, LatencyRecorder.EndpointStats> entry : recorder.snapshot().entrySet()) {
+            String endpoint = entry.getKey();
+            LatencyRecorder.EndpointStats stats = entry.getValue();
+            String maxP99 = System.getProperty("loadtest.max-p99-ms." + endpoint, System.getProperty("loadtest.max-p99-ms"));
+            if (maxP99 != null && stats.percentileMicros(99) / 1000.0 > Double.parseDouble(maxP99)) {
+                violations.add(String.format("%s p99 %.2f ms is above %s ms", endpoint, stats.percentileMicros(99) / 1000.0, maxP99));
+            }
+            if (stats.getErrorRate() > maxErrorRate) {
+                violations.add(String.format("%s error rate %.4f is above %.4f", endpoint, stats.getErrorRate(), maxErrorRate));
+            }
+            if (stats.getRejectedRate() > maxRejectedRate) {
+                violations.add(String.format("%s rejected rate %.4f is above %.4f", endpoint, stats.getRejectedRate(), maxRejectedRate));
+            }
+        }
+        assertTrue(violations.isEmpty(), "Load test thresholds violated: " + violations);
+    }
+}
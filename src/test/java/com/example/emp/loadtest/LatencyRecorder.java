@@ -0,0 +1,99 @@
+package com.example.emp.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects request latencies and outcomes per endpoint and computes percentiles at the end of a run.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long latencyMicros, int status) {
+        stats.computeIfAbsent(endpoint, name -> new EndpointStats()).record(latencyMicros, status);
+    }
+
+    public void recordFailure(String endpoint) {
+        stats.computeIfAbsent(endpoint, name -> new EndpointStats()).recordFailure();
+    }
+
+    public Map<String, EndpointStats> snapshot() {
+        return new TreeMap<>(stats);
+    }
+
+    /**
+     * Latencies are kept for the requests the server handled; a rejection (503) answers without doing
+     * the work, so it would only pull the percentiles down.
+     */
+    public static class EndpointStats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private long failures;
+        private long rejected;
+
+        synchronized void record(long latencyMicros, int status) {
+            if (status == 503) {
+                rejected++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyMicros;
+            if (status >= 500) {
+                errors++;
+            }
+        }
+
+        synchronized void recordFailure() {
+            failures++;
+        }
+
+        /**
+         * Responses other than rejections.
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * Responses with a 2xx, 3xx or 4xx status, the requests that count as throughput.
+         */
+        public synchronized long getHandled() {
+            return count - errors;
+        }
+
+        public synchronized long getErrors() {
+            return errors + failures;
+        }
+
+        public synchronized long getRejected() {
+            return rejected;
+        }
+
+        public synchronized double getErrorRate() {
+            long total = count + rejected + failures;
+            return total == 0 ? 0 : (double) (errors + failures) / total;
+        }
+
+        public synchronized double getRejectedRate() {
+            long total = count + rejected + failures;
+            return total == 0 ? 0 : (double) rejected / total;
+        }
+
+        public synchronized long percentileMicros(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.emp.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Source of requests for a load test run: either a weighted synthetic mix of the employee
+ * endpoints, e.g. {@code list=50,listFiltered=30,create=10,delete=5,export=5}, or a replay of a
+ * recorded request log with one {@code METHOD /path?query [TAB body]} line per request.
+ * {@code {id}} in a recorded path is replaced with an id that can be deleted.
+ */
+public class TrafficMix {
+
+    public static final String LIST = "list";
+    public static final String LIST_FILTERED = "listFiltered";
+    public static final String CREATE = "create";
+    public static final String DELETE = "delete";
+    public static final String EXPORT = "export";
+
+    private static final String[] DEPARTMENTS = {"Engineering", "HR", "Finance", "Digital", "Sales"};
+    private static final String[] NAMES = {"John Doe", "Jane Doe", "Jack Smith", "Anna Berg", "Saul Goodman"};
+
+    private final Map<String, Integer> weights;
+    private final List<PlannedRequest> recording;
+    private final SplittableRandom random;
+    private final AtomicLong replayPosition = new AtomicLong();
+    private final int totalWeight;
+
+    private TrafficMix(Map<String, Integer> weights, List<PlannedRequest> recording, long seed) {
+        this.weights = weights;
+        this.recording = recording;
+        this.random = new SplittableRandom(seed);
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static TrafficMix synthetic(String mix, long seed) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (!List.of(LIST, LIST_FILTERED, CREATE, DELETE, EXPORT).contains(parts[0])) {
+                throw new IllegalArgumentException("Unknown endpoint in traffic mix: " + parts[0]);
+            }
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return new TrafficMix(weights, List.of(), seed);
+    }
+
+    public static TrafficMix recorded(Path file) throws IOException {
+        List<PlannedRequest> recording = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] requestAndBody = line.split("\t", 2);
+            String[] methodAndPath = requestAndBody[0].trim().split(" ", 2);
+            String method = methodAndPath[0].toUpperCase();
+            String path = methodAndPath[1].trim();
+            recording.add(new PlannedRequest(endpointOf(method, path), method, path,
+                    requestAndBody.length > 1 ? requestAndBody[1] : null));
+        }
+        if (recording.isEmpty()) {
+            throw new IllegalArgumentException("Recorded traffic file has no requests: " + file);
+        }
+        return new TrafficMix(Map.of(), recording, 0);
+    }
+
+    public PlannedRequest next(LongSupplier deletableId) {
+        if (!recording.isEmpty()) {
+            PlannedRequest recorded = recording.get((int) (replayPosition.getAndIncrement() % recording.size()));
+            if (recorded.path().contains("{id}")) {
+                return new PlannedRequest(recorded.endpoint(), recorded.method(),
+                        recorded.path().replace("{id}", String.valueOf(deletableId.getAsLong())), recorded.body());
+            }
+            return recorded;
+        }
+
+        synchronized (random) {
+            int pick = random.nextInt(totalWeight);
+            for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                pick -= weight.getValue();
+                if (pick < 0) {
+                    return synthesize(weight.getKey(), deletableId);
+                }
+            }
+        }
+        throw new IllegalStateException("Traffic mix has no weights");
+    }
+
+    private PlannedRequest synthesize(String endpoint, LongSupplier deletableId) {
+        String department = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+        switch (endpoint) {
+            case LIST:
+                return new PlannedRequest(endpoint, "GET", "/employees", null);
+            case LIST_FILTERED:
+                return new PlannedRequest(endpoint, "GET", "/employees?department=" + department
+                        + "&year=" + (2010 + random.nextInt(14)) + "-01-01", null);
+            case CREATE:
+                return new PlannedRequest(endpoint, "POST", "/employees", "{\"name\":\"" + NAMES[random.nextInt(NAMES.length)]
+                        + "\",\"department\":\"" + department + "\",\"yearOfEmployment\":\"2020-01-01\"}");
+            case DELETE:
+                return new PlannedRequest(endpoint, "DELETE", "/employees/" + deletableId.getAsLong(), null);
+            default:
+                return new PlannedRequest(endpoint, "GET", "/employees/export?format=csv&department=" + department, null);
+        }
+    }
+
+    static String endpointOf(String method, String path) {
+        if ("POST".equals(method)) {
+            return CREATE;
+        }
+        if ("DELETE".equals(method)) {
+            return DELETE;
+        }
+        if (path.startsWith("/employees/export")) {
+            return EXPORT;
+        }
+        return path.contains("?") ? LIST_FILTERED : LIST;
+    }
+
+    public record PlannedRequest(String endpoint, String method, String path, String body) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.emp.reactive;
+
+import com.example.emp.business.handlers.EmployeeNotFoundException;
+import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReactiveEmployeeHandlerTest {
+
+    private final ReactiveEmployeeService reactiveEmployeeService = mock(ReactiveEmployeeService.class);
+
+    private final Employee employee = new Employee(1L, "John Doe", "IT", LocalDate.of(2020, 1, 1));
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        ReactiveWebConfig config = new ReactiveWebConfig();
+        ReflectionTestUtils.setField(config, "objectMapper", new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        ReactiveEmployeeHandler handler = new ReactiveEmployeeHandler(reactiveEmployeeService,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        webTestClient = WebTestClient.bindToRouterFunction(config.employeeRoutes(handler))
+                .handlerStrategies(HandlerStrategies.builder().codecs(config::configureHttpMessageCodecs).build())
+                .build();
+    }
+
+    @Test
+    void getEmployees_StreamsMatchingEmployees() {
+        EmployeeQuery query = EmployeeQuery.builder()
+                .departments(Set.of("IT", "HR"))
+                .yearOfEmploymentFrom(LocalDate.of(2020, 1, 1))
+                .build();
+        when(reactiveEmployeeService.getEmployees(query)).thenReturn(Flux.just(employee, employee));
+
+        webTestClient.get().uri("/employees?department=IT,HR&yearFrom=2020-01-01")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class).hasSize(2).contains(employee);
+    }
+
+    @Test
+    void getEmployees_ReturnsJsonArray_WhenJsonIsRequested() {
+        when(reactiveEmployeeService.getEmployees(any())).thenReturn(Flux.just(employee));
+
+        webTestClient.get().uri("/employees")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBodyList(Employee.class).hasSize(1).contains(employee);
+    }
+
+    @Test
+    void getEmployees_ReturnsBadRequest_ForInvalidLimit() {
+        webTestClient.get().uri("/employees?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Limit must be a positive number, provided limit is: 0");
+    }
+
+    @Test
+    void getEmployeeById_ReturnsNotFound() {
+        when(reactiveEmployeeService.getEmployeeById(1L))
+                .thenReturn(Mono.error(new EmployeeNotFoundException("Employee is not found or has left the organization.")));
+
+        webTestClient.get().uri("/employees/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Employee is not found or has left the organization.");
+    }
+
+    @Test
+    void createEmployee_ReturnsCreated() {
+        Employee newEmployee = new Employee(null, "John Doe", "IT", LocalDate.of(2020, 1, 1));
+        when(reactiveEmployeeService.addEmployee(newEmployee)).thenReturn(Mono.just(employee));
+
+        webTestClient.post().uri("/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"John Doe\",\"department\":\"IT\",\"yearOfEmployment\":\"2020-01-01\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.yearOfEmployment").isEqualTo("2020-01-01");
+    }
+
+    @Test
+    void createEmployee_ReturnsBadRequest_ForInvalidEmployee() {
+        webTestClient.post().uri("/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"John Doe\",\"yearOfEmployment\":\"2020-01-01\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(reactiveEmployeeService, never()).addEmployee(any());
+    }
+
+    @Test
+    void deleteEmployee_ReturnsNotFound_WhenEmployeeDoesNotExist() {
+        when(reactiveEmployeeService.deleteEmployee(1L)).thenReturn(Mono.just(false));
+
+        webTestClient.delete().uri("/employees/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void deleteEmployee_ReturnsBadRequest_ForInvalidId() {
+        webTestClient.delete().uri("/employees/-1")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(reactiveEmployeeService, never()).deleteEmployee(any());
+    }
+
+    @Test
+    void exportEmployees_StreamsCsv() {
+        EmployeeQuery query = EmployeeQuery.of("IT", null);
+        when(reactiveEmployeeService.existsEmployees(query)).thenReturn(Mono.just(true));
+        when(reactiveEmployeeService.getEmployees(query)).thenReturn(Flux.just(employee));
+
+        webTestClient.get().uri("/employees/export?department=IT")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("text/csv")
+                .expectBody(String.class).isEqualTo("\"ID\",\"Name\",\"Department\",\"YearOfEmployment\"\n"
+                        + "\"1\",\"John Doe\",\"IT\",\"2020-01-01\"\n");
+    }
+
+    @Test
+    void exportEmployees_ReturnsBadRequest_ForExcel() {
+        webTestClient.get().uri("/employees/export?format=xlsx")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(reactiveEmployeeService, never()).getEmployees(any());
+    }
+}
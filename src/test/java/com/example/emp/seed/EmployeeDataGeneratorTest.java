@@ -0,0 +1,65 @@
+package com.example.emp.seed;
+
+import com.example.emp.business.repository.model.EmployeeDAO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmployeeDataGeneratorTest {
+
+    private static final LocalDate FIRST_HIRE_DATE = LocalDate.of(1995, 1, 1);
+    private static final LocalDate LAST_HIRE_DATE = LocalDate.of(2024, 12, 31);
+
+    @Test
+    void testSameSeedAndChunkGenerateSameEmployees() {
+        List<EmployeeDAO> first = new EmployeeDataGenerator(42, FIRST_HIRE_DATE, LAST_HIRE_DATE).generateChunk(7, 100);
+        List<EmployeeDAO> second = new EmployeeDataGenerator(42, FIRST_HIRE_DATE, LAST_HIRE_DATE).generateChunk(7, 100);
+
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testDifferentSeedsOrChunksGenerateDifferentEmployees() {
+        EmployeeDataGenerator generator = new EmployeeDataGenerator(42, FIRST_HIRE_DATE, LAST_HIRE_DATE);
+
+        assertNotEquals(generator.generateChunk(0, 100), generator.generateChunk(1, 100));
+        assertNotEquals(generator.generateChunk(0, 100),
+                new EmployeeDataGenerator(43, FIRST_HIRE_DATE, LAST_HIRE_DATE).generateChunk(0, 100));
+    }
+
+    @Test
+    void testGeneratedEmployeesAreValid() {
+        List<EmployeeDAO> employees = new EmployeeDataGenerator(42, FIRST_HIRE_DATE, LAST_HIRE_DATE).generateChunk(0, 10000);
+
+        for (EmployeeDAO employee : employees) {
+            assertNull(employee.getId());
+            assertTrue(employee.getName().matches("^[a-zA-Z\\s-]*$"));
+            assertFalse(employee.getDepartment().isBlank());
+            assertFalse(employee.getYearOfEmployment().isBefore(FIRST_HIRE_DATE));
+            assertFalse(employee.getYearOfEmployment().isAfter(LAST_HIRE_DATE));
+        }
+    }
+
+    @Test
+    void testDepartmentSizesAndHireDatesAreSkewed() {
+        List<EmployeeDAO> employees = new EmployeeDataGenerator(42, FIRST_HIRE_DATE, LAST_HIRE_DATE).generateChunk(0, 50000);
+
+        Map<String, Long> departmentSizes = employees.stream()
+                .collect(Collectors.groupingBy(EmployeeDAO::getDepartment, Collectors.counting()));
+        assertTrue(departmentSizes.get("Engineering") > 5 * departmentSizes.get("Internal Audit"));
+
+        Map<Boolean, Long> hiredInSecondHalf = employees.stream()
+                .map(EmployeeDAO::getYearOfEmployment)
+                .collect(Collectors.partitioningBy(date -> date.isAfter(LocalDate.of(2009, 12, 31)), Collectors.counting()));
+        assertTrue(hiredInSecondHalf.get(true) > 2 * hiredInSecondHalf.get(false));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.emp.warmup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmployeeWarmUpTest {
+
+    @Test
+    void testReplaysOnlyReads() {
+        List<EmployeeWarmUp.WarmUpRequest> requests = EmployeeWarmUp.parse(List.of(
+                "# recorded traffic",
+                "GET /employees?department=HR",
+                "POST /employees\t{\"name\":\"Jane Doe\",\"department\":\"HR\",\"yearOfEmployment\":\"2021-01-01\"}",
+                "",
+                "DELETE /employees/{id}",
+                "head /employees",
+                "GET /employees/{id}"), 42L);
+
+        assertEquals(List.of(
+                new EmployeeWarmUp.WarmUpRequest("GET", "/employees?department=HR"),
+                new EmployeeWarmUp.WarmUpRequest("HEAD", "/employees"),
+                new EmployeeWarmUp.WarmUpRequest("GET", "/employees/42")), requests);
+    }
+
+    @Test
+    void testSkipsIdRequestsWithoutEmployees() {
+        List<EmployeeWarmUp.WarmUpRequest> requests = EmployeeWarmUp.parse(EmployeeWarmUp.SYNTHETIC_REQUESTS, null);
+
+        assertEquals(EmployeeWarmUp.SYNTHETIC_REQUESTS.size() - 1, requests.size());
+        assertTrue(requests.stream().noneMatch(request -> request.path().contains("{id}")));
+    }
+}
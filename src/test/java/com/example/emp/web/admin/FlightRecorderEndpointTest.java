@@ -0,0 +1,103 @@
+package com.example.emp.web.admin;
+
+import com.example.emp.business.profiling.EmployeeQueryEvent;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlightRecorderEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(endpoint, "directoryName", directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.shutdown();
+    }
+
+    @Test
+    void testRecordingContainsEmployeeServiceEvents() throws Exception {
+        long id = start(null);
+
+        EmployeeQueryEvent event = new EmployeeQueryEvent();
+        event.begin();
+        event.kind = "list";
+        event.rows = 42;
+        event.commit();
+        assertEquals(200, endpoint.stop(id).getStatus());
+
+        WebEndpointResponse<Resource> response = endpoint.recording(id);
+        assertEquals(200, response.getStatus());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(response.getBody().getFile().toPath());
+        assertTrue(events.stream().anyMatch(recorded -> recorded.getEventType().getName().equals("com.example.emp.EmployeeQuery")
+                && "list".equals(recorded.getString("kind")) && recorded.getLong("rows") == 42));
+    }
+
+    @Test
+    void testRecordingLeavesOutPropertiesAndEnvironment() throws Exception {
+        long id = start(null);
+        endpoint.stop(id);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(endpoint.recording(id).getBody().getFile().toPath());
+
+        assertFalse(events.isEmpty());
+        assertTrue(events.stream().map(recorded -> recorded.getEventType().getName())
+                .noneMatch(name -> name.equals("jdk.InitialSystemProperty") || name.equals("jdk.InitialEnvironmentVariable")
+                        || name.equals("jdk.JVMInformation")));
+    }
+
+    @Test
+    void testOnlyOneRecordingRunsAtATime() {
+        start(null);
+
+        assertEquals(409, endpoint.start(null, null).getStatus());
+    }
+
+    @Test
+    void testRecordingsAreBounded() {
+        assertEquals(400, endpoint.start(301L, null).getStatus());
+        assertEquals(400, endpoint.start(0L, null).getStatus());
+        assertEquals(400, endpoint.start(10L, "everything").getStatus());
+    }
+
+    @Test
+    void testDiscardedRecordingIsGone() throws Exception {
+        long id = start(10L);
+
+        assertEquals(204, endpoint.discard(id).getStatus());
+
+        assertEquals(404, endpoint.recording(id).getStatus());
+        assertTrue(endpoint.recordings().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private long start(Long durationSeconds) {
+        WebEndpointResponse<Object> response = endpoint.start(durationSeconds, null);
+        assertEquals(200, response.getStatus());
+        Map<String, Object> recording = (Map<String, Object>) response.getBody();
+        assertEquals(RecordingState.RUNNING, recording.get("state"));
+        return (Long) recording.get("id");
+    }
+}
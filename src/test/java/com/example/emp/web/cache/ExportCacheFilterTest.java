@@ -0,0 +1,208 @@
+package com.example.emp.web.cache;
+
+import com.example.emp.business.export.ExportCache;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExportCacheFilterTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExportCache exportCache = new ExportCache();
+
+    private final ExportCacheFilter filter = new ExportCacheFilter();
+
+    private final AtomicInteger exports = new AtomicInteger();
+
+    private int status = HttpServletResponse.SC_OK;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(exportCache, "directoryName", directory.toString());
+        exportCache.start();
+        ReflectionTestUtils.setField(filter, "exportCache", exportCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportCache.shutdown();
+    }
+
+    @Test
+    void testSecondRequestIsServedFromCache() throws Exception {
+        MockHttpServletResponse first = export("HR");
+        MockHttpServletResponse second = export("HR");
+
+        assertEquals(1, exports.get());
+        assertEquals("MISS", first.getHeader(ExportCacheFilter.CACHE_HEADER));
+        assertEquals("HIT", second.getHeader(ExportCacheFilter.CACHE_HEADER));
+        assertEquals("ID,Name\n1,Export 1\n", second.getContentAsString());
+        assertEquals(first.getContentAsString(), second.getContentAsString());
+        assertEquals(second.getContentAsByteArray().length, second.getContentLength());
+        assertEquals("text/csv", second.getContentType());
+        assertEquals("attachment; filename=employees.csv", second.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    void testWriteToDepartmentInvalidatesCachedExport() throws Exception {
+        export("HR");
+        export("Sales");
+
+        exportCache.invalidate("HR");
+
+        assertEquals("ID,Name\n3,Export 3\n", export("HR").getContentAsString());
+        assertEquals("HIT", export("Sales").getHeader(ExportCacheFilter.CACHE_HEADER));
+        assertEquals(3, exports.get());
+    }
+
+    @Test
+    void testUnsuccessfulExportIsNotCached() throws Exception {
+        status = HttpServletResponse.SC_NO_CONTENT;
+
+        MockHttpServletResponse response = export("HR");
+        export("HR");
+
+        assertEquals(HttpServletResponse.SC_NO_CONTENT, response.getStatus());
+        assertEquals(2, exports.get());
+    }
+
+    @Test
+    void testRangeRequestResumesFromCachedFile() throws Exception {
+        String etag = export("HR").getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = export("HR", HttpHeaders.RANGE, "bytes=8-", HttpHeaders.IF_RANGE, etag);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("1,Export 1\n", response.getContentAsString());
+        assertEquals("bytes 8-18/19", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(11, response.getContentLength());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(1, exports.get());
+    }
+
+    @Test
+    void testRangeOfChangedExportSendsWholeFile() throws Exception {
+        String etag = export("HR").getHeader(HttpHeaders.ETAG);
+        exportCache.invalidate("HR");
+
+        MockHttpServletResponse response = export("HR", HttpHeaders.RANGE, "bytes=8-", HttpHeaders.IF_RANGE, etag);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("ID,Name\n2,Export 2\n", response.getContentAsString());
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        export("HR");
+
+        MockHttpServletResponse response = export("HR", HttpHeaders.RANGE, "bytes=100-");
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */19", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testNotModifiedForMatchingETag() throws Exception {
+        String etag = export("HR").getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = export("HR", HttpHeaders.IF_NONE_MATCH, etag);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testNoCacheRequestRendersAgain() throws Exception {
+        export("HR");
+
+        MockHttpServletResponse response = export("HR", HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        assertEquals("MISS", response.getHeader(ExportCacheFilter.CACHE_HEADER));
+        assertEquals("ID,Name\n2,Export 2\n", response.getContentAsString());
+        assertEquals(2, exports.get());
+    }
+
+    @Test
+    void testAsyncExportIsPassedThroughAndNotCached() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees/export");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<HttpServletResponse> asyncResponse = new AtomicReference<>();
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                exports.incrementAndGet();
+                request.startAsync(request, response);
+                response.getOutputStream().write("ID,Name\n".getBytes(StandardCharsets.UTF_8));
+                asyncResponse.set(response);
+            }
+        }));
+        asyncResponse.get().getOutputStream().write("1,Async\n".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("ID,Name\n1,Async\n", response.getContentAsString());
+        assertEquals(0, exportCache.getTotalBytes());
+    }
+
+    @Test
+    void testOtherRequestsAreNotFiltered() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new ExportServlet()));
+
+        assertNull(response.getHeader(ExportCacheFilter.CACHE_HEADER));
+        assertEquals(1, exports.get());
+    }
+
+    private MockHttpServletResponse export(String department, String... headers) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees/export");
+        request.setParameter("format", "csv");
+        request.setParameter("department", department);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new ExportServlet()));
+        return response;
+    }
+
+    private class ExportServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            int export = exports.incrementAndGet();
+            response.setStatus(status);
+            if (status != HttpServletResponse.SC_OK) {
+                return;
+            }
+            response.setContentType("text/csv");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=employees.csv");
+            response.getWriter().write("ID,Name\n" + export + ",Export " + export + "\n");
+            response.getWriter().close();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.emp.web.controller;
 
+import com.example.emp.business.repository.DepartmentDictionary;
 import com.example.emp.business.repository.EmployeeRepository;
+import com.example.emp.business.repository.SqlStatementCounter;
 import com.example.emp.business.repository.model.EmployeeDAO;
 import com.example.emp.model.Employee;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,6 +18,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.time.LocalDate;
 import java.util.Optional;
 
+import static com.example.emp.business.repository.SqlStatementBudget.assertStatements;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -34,9 +37,16 @@ public class EmployeeControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private DepartmentDictionary departmentDictionary;
+
     @BeforeEach
     public void setUp() {
         employeeRepository.deleteAll();
+        departmentDictionary.register("Engineering");
     }
 
     @Test
@@ -132,4 +142,33 @@ public class EmployeeControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.status().isNoContent())
                 .andExpect(MockMvcResultMatchers.content().string("No employees found for the given criteria."));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testQueryBudgets() throws Throwable {
+        EmployeeDAO employeeDAO = employeeRepository.save(new EmployeeDAO(null, "John Doe", "Engineering", LocalDate.of(2020, 1, 1)));
+        Employee employee = new Employee(null, "Jane Doe", "Engineering", LocalDate.of(2021, 1, 1));
+        Employee firstOfDepartment = new Employee(null, "Jack Smith", "Query Budgets", LocalDate.of(2021, 1, 1));
+
+        assertStatements(sqlStatementCounter, 1, () -> mockMvc.perform(get("/employees").param("department", "Engineering"))
+                .andExpect(MockMvcResultMatchers.status().isOk()));
+        assertStatements(sqlStatementCounter, 1, () -> mockMvc.perform(get("/employees/{id}", employeeDAO.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk()));
+        assertStatements(sqlStatementCounter, 1, () -> mockMvc.perform(post("/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(MockMvcResultMatchers.status().isCreated()));
+        // dictionary reload on the miss, department insert, reload and employee insert
+        assertStatements(sqlStatementCounter, 4, () -> mockMvc.perform(post("/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(firstOfDepartment)))
+                .andExpect(MockMvcResultMatchers.status().isCreated()));
+        // the fields keep the request out of the export cache of other tests
+        assertStatements(sqlStatementCounter, 1, () -> mockMvc.perform(get("/employees/export")
+                        .param("format", "csv")
+                        .param("fields", "id,name,department"))
+                .andExpect(MockMvcResultMatchers.status().isOk()));
+        // exists check, load of the leaver, copy into the archive and delete
+        assertStatements(sqlStatementCounter, 4, () -> mockMvc.perform(delete("/employees/{id}", employeeDAO.getId()))
+                .andExpect(MockMvcResultMatchers.status().isNoContent()));
+    }
+}
@@ -1,8 +1,16 @@
 package com.example.emp.web.controller;
 
 
+import com.example.emp.business.events.EmployeeEventHub;
+import com.example.emp.business.export.ExportCache;
+import com.example.emp.business.handlers.EmployeeNotFoundException;
 import com.example.emp.business.service.EmployeeService;
 import com.example.emp.model.Employee;
+import com.example.emp.model.EmployeeField;
+import com.example.emp.model.EmployeeQuery;
+import com.example.emp.web.converter.BinaryObjectMappers;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,29 +19,38 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTest {
@@ -44,6 +61,12 @@ public class EmployeeControllerTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeEventHub employeeEventHub;
+
+    @MockBean
+    private ExportCache exportCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -60,7 +83,7 @@ public class EmployeeControllerTest {
 
     @Test
     void getEmployees_ReturnsOk() throws Exception {
-        given(employeeService.getEmployees(null, null)).willReturn(Arrays.asList(employee));
+        given(employeeService.getEmployees(EmployeeQuery.of(null, null))).willReturn(Arrays.asList(employee));
 
         mockMvc.perform(get("/employees"))
                 .andExpect(status().isOk())
@@ -71,19 +94,133 @@ public class EmployeeControllerTest {
                 .andExpect(jsonPath("$[0].department", is(employee.getDepartment())))
                 .andExpect(jsonPath("$[0].yearOfEmployment", is(employee.getYearOfEmployment().toString())));
 
-        verify(employeeService).getEmployees(null, null);
+        verify(employeeService).getEmployees(EmployeeQuery.of(null, null));
     }
 
     @Test
     void getEmployees_ReturnsEmptyList() throws Exception {
-        given(employeeService.getEmployees(null, null)).willReturn(Collections.emptyList());
+        given(employeeService.getEmployees(EmployeeQuery.of(null, null))).willReturn(Collections.emptyList());
 
         mockMvc.perform(get("/employees"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(0)));
 
-        verify(employeeService).getEmployees(null, null);
+        verify(employeeService).getEmployees(EmployeeQuery.of(null, null));
+    }
+
+    @Test
+    void getEmployees_ReturnsOnlySelectedFields() throws Exception {
+        Employee partial = new Employee(1L, "John Doe", null, null);
+        given(employeeService.getEmployees(EmployeeQuery.builder().fields(EnumSet.of(EmployeeField.ID, EmployeeField.NAME)).build()))
+                .willReturn(Arrays.asList(partial));
+
+        mockMvc.perform(get("/employees").param("fields", "name, id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].name", is("John Doe")))
+                .andExpect(jsonPath("$[0].department").doesNotExist())
+                .andExpect(jsonPath("$[0].yearOfEmployment").doesNotExist());
+    }
+
+    @Test
+    void getEmployees_ReturnsBadRequest_ForUnknownField() throws Exception {
+        mockMvc.perform(get("/employees").param("fields", "id,salary"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid fields. Supported fields are: id, name, department, yearOfEmployment."));
+
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
+    }
+
+    @Test
+    void getEmployees_PassesSortAndLimit() throws Exception {
+        EmployeeQuery query = EmployeeQuery.builder()
+                .departments(Set.of("IT"))
+                .sort(Sort.by(Sort.Order.desc("yearOfEmployment"), Sort.Order.asc("name")))
+                .limit(100)
+                .build();
+        given(employeeService.getEmployees(query)).willReturn(Arrays.asList(employee));
+
+        mockMvc.perform(get("/employees")
+                        .param("department", "IT")
+                        .param("sort", "-yearOfEmployment,name")
+                        .param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(employeeService).getEmployees(query);
+    }
+
+    @Test
+    void getEmployees_ReturnsBadRequest_ForInvalidSortOrLimit() throws Exception {
+        mockMvc.perform(get("/employees").param("sort", "salary"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid sort. Supported sort fields are: name, department, yearOfEmployment, " +
+                        "prefixed with '-' for descending order."));
+
+        mockMvc.perform(get("/employees").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Limit must be a positive number, provided limit is: 0"));
+
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
+    }
+
+    @Test
+    void getEmployees_ReturnsSmile_WhenRequested() throws Exception {
+        given(employeeService.getEmployees(EmployeeQuery.of(null, null))).willReturn(Arrays.asList(employee));
+
+        byte[] body = mockMvc.perform(get("/employees").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<Employee> employees = BinaryObjectMappers.smile().readValue(body, new TypeReference<List<Employee>>() {
+        });
+        assertEquals(employee, employees.get(0));
+        JsonNode tree = BinaryObjectMappers.smile().readTree(body);
+        assertEquals(employee.getYearOfEmployment().toEpochDay(), tree.get(0).get("yearOfEmployment").asLong());
+    }
+
+    @Test
+    void getEmployeeById_ReturnsOk() throws Exception {
+        given(employeeService.getEmployeeById(1L, false)).willReturn(employee);
+
+        mockMvc.perform(get("/employees/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id", is(employee.getId().intValue())))
+                .andExpect(jsonPath("$.name", is(employee.getName())))
+                .andExpect(jsonPath("$.yearOfEmployment", is(employee.getYearOfEmployment().toString())));
+    }
+
+    @Test
+    void getEmployeeById_ReturnsCbor_WhenRequested() throws Exception {
+        given(employeeService.getEmployeeById(1L, false)).willReturn(employee);
+
+        byte[] body = mockMvc.perform(get("/employees/{id}", 1L).accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(employee, BinaryObjectMappers.cbor().readValue(body, Employee.class));
+    }
+
+    @Test
+    void getEmployeeById_ReturnsNotFound() throws Exception {
+        given(employeeService.getEmployeeById(1L, false))
+                .willThrow(new EmployeeNotFoundException("Employee is not found or has left the organization."));
+
+        mockMvc.perform(get("/employees/{id}", 1L))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Employee is not found or has left the organization."));
+    }
+
+    @Test
+    void getEmployeeById_ReturnsBadRequest_ForInvalidId() throws Exception {
+        mockMvc.perform(get("/employees/{id}", -1L))
+                .andExpect(status().isBadRequest());
+
+        verify(employeeService, Mockito.never()).getEmployeeById(anyLong(), anyBoolean());
     }
 
     @Test
@@ -173,9 +310,7 @@ public class EmployeeControllerTest {
 
     @Test
     void exportEmployees_ReturnsOk_ForCSVFormat() throws Exception {
-        List<Employee> employees = Arrays.asList(employee);
-        given(employeeService.getEmployees(anyString(), any(LocalDate.class))).willReturn(employees);
-        doNothing().when(employeeService).exportToCSV(anyList(), any(HttpServletResponse.class));
+        given(employeeService.exportToCSV(any(EmployeeQuery.class), any(HttpServletResponse.class))).willReturn(true);
 
         mockMvc.perform(get("/employees/export")
                         .param("department", "Digital")
@@ -183,14 +318,13 @@ public class EmployeeControllerTest {
                         .param("format", "csv"))
                 .andExpect(status().isOk());
 
-        verify(employeeService).exportToCSV(anyList(), any(HttpServletResponse.class));
+        verify(employeeService).exportToCSV(eq(EmployeeQuery.of("Digital", LocalDate.of(2023, 1, 1))), any(HttpServletResponse.class));
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
     }
 
     @Test
     void exportEmployees_ReturnsOk_ForXLSXFormat() throws Exception {
-        List<Employee> employees = Arrays.asList(employee);
-        given(employeeService.getEmployees(anyString(), any(LocalDate.class))).willReturn(employees);
-        doNothing().when(employeeService).exportToExcel(any(), any(HttpServletResponse.class));
+        given(employeeService.exportToExcel(any(EmployeeQuery.class), any(HttpServletResponse.class))).willReturn(true);
 
         mockMvc.perform(get("/employees/export")
                         .param("department", "Digital")
@@ -198,12 +332,166 @@ public class EmployeeControllerTest {
                         .param("format", "xlsx"))
                 .andExpect(status().isOk());
 
-        verify(employeeService).exportToExcel(any(), any(HttpServletResponse.class));
+        verify(employeeService).exportToExcel(eq(EmployeeQuery.of("Digital", LocalDate.of(2023, 1, 1))), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void getEmployees_PassesDepartmentsAndDateRange() throws Exception {
+        EmployeeQuery query = EmployeeQuery.builder()
+                .departments(Set.of("IT", "HR"))
+                .yearOfEmploymentFrom(LocalDate.of(2020, 1, 1))
+                .yearOfEmploymentTo(LocalDate.of(2020, 12, 31))
+                .build();
+        given(employeeService.getEmployees(query)).willReturn(Arrays.asList(employee));
+
+        mockMvc.perform(get("/employees")
+                        .param("department", "IT", "HR")
+                        .param("yearFrom", "2020-01-01")
+                        .param("yearTo", "2020-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(employeeService).getEmployees(query);
+    }
+
+    @Test
+    void getEmployees_ReturnsBadRequest_ForInvertedDateRange() throws Exception {
+        mockMvc.perform(get("/employees")
+                        .param("yearFrom", "2021-01-01")
+                        .param("yearTo", "2020-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("yearFrom must not be after yearTo, provided range is: 2021-01-01 - 2020-01-01"));
+
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
+    }
+
+    @Test
+    void getEmployees_ReturnsBadRequest_ForArchivedWithSort() throws Exception {
+        mockMvc.perform(get("/employees")
+                        .param("includeArchived", "true")
+                        .param("sort", "name"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Archived employees can not be combined with sort or limit."));
+
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
+    }
+
+    @Test
+    void archiveEmployees_ReturnsArchivedCount() throws Exception {
+        given(employeeService.archiveEmployees(List.of(1L, 2L))).willReturn(2);
+
+        mockMvc.perform(post("/employees/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    @Test
+    void archiveEmployees_ReturnsBadRequest_ForInvalidIds() throws Exception {
+        mockMvc.perform(post("/employees/archive")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,-2]"))
+                .andExpect(status().isBadRequest());
+
+        verify(employeeService, Mockito.never()).archiveEmployees(any());
+    }
+
+    @Test
+    void countEmployees_ReturnsCountInBodyAndHeader() throws Exception {
+        given(employeeService.countEmployees(EmployeeQuery.of("IT", null))).willReturn(42L);
+
+        mockMvc.perform(get("/employees/count")
+                        .param("department", "IT"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "42"))
+                .andExpect(content().string("42"));
+
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
+    }
+
+    @Test
+    void headEmployees_ReturnsCountHeaderOnly() throws Exception {
+        EmployeeQuery query = EmployeeQuery.builder()
+                .departments(Set.of("IT", "HR"))
+                .yearOfEmploymentFrom(LocalDate.of(2020, 1, 1))
+                .build();
+        given(employeeService.countEmployees(query)).willReturn(7L);
+
+        mockMvc.perform(head("/employees")
+                        .param("department", "IT,HR")
+                        .param("yearFrom", "2020-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "7"))
+                .andExpect(content().string(""));
+
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
+    }
+
+    @Test
+    void exportEmployees_PassesSelectedFields() throws Exception {
+        Set<EmployeeField> fields = EnumSet.of(EmployeeField.ID, EmployeeField.NAME);
+        EmployeeQuery query = EmployeeQuery.builder().departments(Set.of("Digital")).fields(fields).build();
+        given(employeeService.exportToCSV(eq(query), any(HttpServletResponse.class))).willReturn(true);
+
+        mockMvc.perform(get("/employees/export")
+                        .param("department", "Digital")
+                        .param("fields", "id,name"))
+                .andExpect(status().isOk());
+
+        verify(employeeService).exportToCSV(eq(query), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void exportEmployees_ReturnsOk_ForSheetPerDepartment() throws Exception {
+        given(employeeService.exportToExcelByDepartment(any(EmployeeQuery.class), any(HttpServletResponse.class))).willReturn(true);
+
+        mockMvc.perform(get("/employees/export")
+                        .param("format", "xlsx")
+                        .param("sheetPerDepartment", "true"))
+                .andExpect(status().isOk());
+
+        verify(employeeService).exportToExcelByDepartment(eq(EmployeeQuery.of(null, null)), any(HttpServletResponse.class));
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
+    }
+
+    @Test
+    void exportEmployees_ReturnsBadRequest_ForSheetPerDepartmentWithCsv() throws Exception {
+        mockMvc.perform(get("/employees/export")
+                        .param("format", "csv")
+                        .param("sheetPerDepartment", "true"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Sheet per department is only supported for the 'xlsx' format."));
+
+        verify(employeeService, Mockito.never()).exportToExcelByDepartment(any(), any());
+    }
+
+    @Test
+    void exportEmployees_ReturnsOk_ForParallelCsv() throws Exception {
+        given(employeeService.exportToCSVParallel(any(EmployeeQuery.class), any(HttpServletResponse.class))).willReturn(true);
+
+        mockMvc.perform(get("/employees/export")
+                        .param("department", "Digital")
+                        .param("parallel", "true"))
+                .andExpect(status().isOk());
+
+        verify(employeeService).exportToCSVParallel(eq(EmployeeQuery.of("Digital", null)), any(HttpServletResponse.class));
+    }
+
+    @Test
+    void exportEmployees_ReturnsBadRequest_ForParallelWithSort() throws Exception {
+        mockMvc.perform(get("/employees/export")
+                        .param("parallel", "true")
+                        .param("sort", "name"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Parallel export is ordered by id and does not support sort or limit."));
+
+        verify(employeeService, Mockito.never()).exportToCSVParallel(any(), any());
     }
 
     @Test
     void exportEmployees_ReturnsNoContent_WhenNoEmployeesFound() throws Exception {
-        given(employeeService.getEmployees(anyString(), any(LocalDate.class))).willReturn(Collections.emptyList());
+        given(employeeService.exportToCSV(any(EmployeeQuery.class), any(HttpServletResponse.class))).willReturn(false);
 
         mockMvc.perform(get("/employees/export")
                         .param("department", "Digital")
@@ -212,8 +500,9 @@ public class EmployeeControllerTest {
                 .andExpect(status().isNoContent())
                 .andExpect(content().string("No employees found for the given criteria."));
 
-        verify(employeeService).getEmployees("Digital", LocalDate.of(2023, 1, 1));
-        verify(employeeService, Mockito.never()).exportToCSV(any(), any(HttpServletResponse.class));
+        verify(employeeService).exportToCSV(eq(EmployeeQuery.of("Digital", LocalDate.of(2023, 1, 1))), any(HttpServletResponse.class));
+        verify(employeeService, Mockito.never()).existsEmployees(any(EmployeeQuery.class));
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
     }
 
     @Test
@@ -225,8 +514,20 @@ public class EmployeeControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Invalid format. Please specify 'csv' or 'xlsx'."));
 
-        verify(employeeService, Mockito.never()).getEmployees(anyString(), any(LocalDate.class));
+        verify(employeeService, Mockito.never()).getEmployees(any(EmployeeQuery.class));
     }
 
-}
+    @Test
+    void streamEmployeeEvents_StartsAsyncStream() throws Exception {
+        given(employeeEventHub.subscribe("IT", 5L)).willReturn(new SseEmitter());
 
+        mockMvc.perform(get("/employees/stream")
+                        .param("department", "IT")
+                        .header("Last-Event-ID", "5")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(employeeEventHub).subscribe("IT", 5L);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.example.emp.web.converter;
+
+import com.example.emp.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class EmployeeJsonSerializerTest {
+
+    private final EmployeeJsonSerializer serializer = new EmployeeJsonSerializer();
+
+    private final ObjectMapper reflective = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ObjectMapper optimized = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new SimpleModule().addSerializer(Employee.class, serializer))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void testWritesSameJsonAsReflectiveSerializer() throws Exception {
+        List<Employee> employees = List.of(
+                new Employee(1L, "John \"JD\" Doe", "Engineering", LocalDate.of(2020, 1, 1)),
+                new Employee(2L, "Jane Doe", "HR", LocalDate.of(2021, 12, 31)));
+
+        assertEquals(reflective.writeValueAsString(employees), optimized.writeValueAsString(employees));
+    }
+
+    @Test
+    void testOmitsAttributesThatWereNotSelected() throws Exception {
+        Employee employee = new Employee(1L, "John Doe", null, null);
+
+        assertEquals("{\"id\":1,\"name\":\"John Doe\"}", optimized.writeValueAsString(employee));
+        assertEquals(reflective.writeValueAsString(employee), optimized.writeValueAsString(employee));
+    }
+
+    @Test
+    void testReusesFormattedDates() {
+        assertSame(serializer.date(LocalDate.of(2020, 1, 1)), serializer.date(LocalDate.of(2020, 1, 1)));
+    }
+}
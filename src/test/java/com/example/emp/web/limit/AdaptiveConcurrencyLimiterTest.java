@@ -0,0 +1,94 @@
+package com.example.emp.web.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testRejectsWhenLimitReached() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.adaptive("getEmployees", 2, 1, 10, 1);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void testQueuedRequestGetsReleasedPermit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.fixed("exportEmployees", 1, 1, 5000, 10);
+        assertTrue(limiter.tryAcquire());
+
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(limiter::tryAcquire);
+        while (limiter.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getRejected());
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.fixed("exportEmployees", 1, 0, 5000, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    void testQueuedRequestTimesOut() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.fixed("exportEmployees", 1, 1, 50, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.adaptive("getEmployees", 10, 1, 100, 1);
+
+        for (int i = 0; i < 50; i++) {
+            fillAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyClimbs() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.adaptive("getEmployees", 50, 5, 100, 1);
+        fillAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        int limitBefore = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            fillAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        assertTrue(limiter.getLimit() < limitBefore);
+        assertTrue(limiter.getLimit() >= 5);
+    }
+
+    private void fillAndRelease(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(latencyNanos);
+        }
+    }
+}